@@ -1,8 +1,5 @@
 package checker;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -10,8 +7,14 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public final class Checker {
     private static int gitScore;
@@ -91,24 +94,51 @@ public final class Checker {
         }
         List<String> listFile = Arrays.asList(Objects.requireNonNull(directory.list()));
         Collections.sort(listFile);
-        for (String file : listFile) {
-            if (file.startsWith("library")) {
-                continue;
-            }
 
-            totalScore += calculateScore(file);
+        // The tests are compared in parallel, then printed in order.
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors());
+        try {
+            Map<String, Future<String>> differences = new LinkedHashMap<>();
+            for (String file : listFile) {
+                if (file.startsWith("library")) {
+                    continue;
+                }
+                differences.put(file, executor.submit(() -> checkOutput(file)));
+            }
+            for (Map.Entry<String, Future<String>> test : differences.entrySet()) {
+                totalScore += printScore(test.getKey(), getDifference(test.getValue()));
+            }
+        } finally {
+            executor.shutdownNow();
         }
 
         System.out.println("-----------------------------------------------------");
         System.out.println("TESTS = " + totalScore + "/80");
     }
 
+    private static String getDifference(final Future<String> difference) {
+        try {
+            return difference.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            return String.valueOf(e.getCause());
+        }
+    }
+
     /**
      * This method calculates the score of only one single test
      * @return the score of that test
      */
     public static int calculateScore(final String input) {
-        if (checkOutput(input)) {
+        return printScore(input, checkOutput(input));
+    }
+
+    private static int printScore(final String input, final String difference) {
+        if (difference == null) {
             System.out.print(input + " ");
             for (int i = 1;  i <= CheckerConstants.LEN_LONGEST_TEST_NAME - input.length(); i++) {
                 System.out.print("-");
@@ -122,6 +152,7 @@ public final class Checker {
                 System.out.print("-");
             }
             System.out.println("--------------------------------------------- FAILED (+0)");
+            System.out.println("    " + difference);
             return 0;
         }
     }
@@ -129,20 +160,16 @@ public final class Checker {
     /**
      * @param file the test you want to check
      * @return
-     *          if the two files are equal or not
+     *          null if the two files are equal, otherwise where they differ
      */
-    private static boolean checkOutput(final String file) {
-        ObjectMapper mapper = new ObjectMapper();
-
+    private static String checkOutput(final String file) {
         try {
-            JsonNode output = mapper.readTree(new File(CheckerConstants.OUT_PATH + file));
-            JsonNode ref = mapper.readTree(new File(CheckerConstants.REF_PATH + file));
-            return output.equals(ref);
-
+            return JsonComparator.findDifference(new File(CheckerConstants.OUT_PATH + file),
+                    new File(CheckerConstants.REF_PATH + file));
         } catch (IOException e) {
             e.printStackTrace();
+            return String.valueOf(e);
         }
-        return false;
     }
 
     /**
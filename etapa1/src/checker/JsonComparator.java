@@ -0,0 +1,215 @@
+package checker;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JSON files by reading them token by token at the same time, so the files
+ * are never loaded as whole trees and the comparison stops at the first difference.
+ * The files are equal exactly when their JsonNode trees are equal: the fields of an
+ * object may come in any order, so when two objects have their fields in different
+ * orders, only the rest of those two objects is read as trees and compared.
+ */
+public final class JsonComparator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private final JsonParser actual;
+    private final JsonParser expected;
+    // The fields and indexes from the root to the value that is compared.
+    private final Deque<String> path = new ArrayDeque<>();
+
+    private JsonComparator(final JsonParser actual, final JsonParser expected) {
+        this.actual = actual;
+        this.expected = expected;
+    }
+
+    /**
+     * Compares two JSON files
+     *
+     * @param actualFile   the file that is checked
+     * @param expectedFile the reference file
+     * @return null if the files are equal, otherwise the path of the first difference
+     * together with the two different values
+     * @throws IOException if a file can't be read or is not valid JSON
+     */
+    public static String findDifference(final File actualFile,
+                                        final File expectedFile) throws IOException {
+        try (JsonParser actual = FACTORY.createParser(actualFile);
+             JsonParser expected = FACTORY.createParser(expectedFile)) {
+            actual.setCodec(MAPPER);
+            expected.setCodec(MAPPER);
+            return new JsonComparator(actual, expected).compareNext();
+        }
+    }
+
+    private String compareNext() throws IOException {
+        JsonToken actualToken = actual.nextToken();
+        JsonToken expectedToken = expected.nextToken();
+        return compareValues(actualToken, expectedToken);
+    }
+
+    private String compareValues(final JsonToken actualToken,
+                                 final JsonToken expectedToken) throws IOException {
+        if (actualToken != expectedToken) {
+            return difference(describe(actual, actualToken), describe(expected, expectedToken));
+        }
+        if (actualToken == null) {
+            return null;
+        }
+        switch (actualToken) {
+            case START_ARRAY:
+                return compareArrays();
+            case START_OBJECT:
+                return compareObjects();
+            case VALUE_STRING:
+                return compareText();
+            case VALUE_NUMBER_INT:
+                if (actual.getNumberType() != expected.getNumberType()
+                        || !actual.getBigIntegerValue().equals(expected.getBigIntegerValue())) {
+                    return difference(actual.getText(), expected.getText());
+                }
+                return null;
+            case VALUE_NUMBER_FLOAT:
+                if (Double.compare(actual.getDoubleValue(), expected.getDoubleValue()) != 0) {
+                    return difference(actual.getText(), expected.getText());
+                }
+                return null;
+            default:
+                // true, false and null have nothing to compare besides the token.
+                return null;
+        }
+    }
+
+    private String compareText() throws IOException {
+        String actualText = actual.getText();
+        String expectedText = expected.getText();
+        if (!actualText.equals(expectedText)) {
+            return difference('"' + actualText + '"', '"' + expectedText + '"');
+        }
+        return null;
+    }
+
+    private String compareArrays() throws IOException {
+        for (int index = 0;; index++) {
+            JsonToken actualToken = actual.nextToken();
+            JsonToken expectedToken = expected.nextToken();
+            if (actualToken == JsonToken.END_ARRAY || expectedToken == JsonToken.END_ARRAY) {
+                if (actualToken != expectedToken) {
+                    path.addLast("[" + index + "]");
+                    return difference(describe(actual, actualToken),
+                            describe(expected, expectedToken));
+                }
+                return null;
+            }
+            path.addLast("[" + index + "]");
+            String difference = compareValues(actualToken, expectedToken);
+            if (difference != null) {
+                return difference;
+            }
+            path.removeLast();
+        }
+    }
+
+    private String compareObjects() throws IOException {
+        while (true) {
+            JsonToken actualToken = actual.nextToken();
+            JsonToken expectedToken = expected.nextToken();
+            if (actualToken == JsonToken.END_OBJECT && expectedToken == JsonToken.END_OBJECT) {
+                return null;
+            }
+            String actualName = actualToken == JsonToken.FIELD_NAME
+                    ? actual.getCurrentName() : null;
+            String expectedName = expectedToken == JsonToken.FIELD_NAME
+                    ? expected.getCurrentName() : null;
+            if (actualName == null || !actualName.equals(expectedName)) {
+                // The fields are in a different order (or missing), so the rest of the
+                // two objects is compared as maps.
+                return compareRemainingFields(actualName, expectedName);
+            }
+            path.addLast("." + actualName);
+            String difference = compareNext();
+            if (difference != null) {
+                return difference;
+            }
+            path.removeLast();
+        }
+    }
+
+    private String compareRemainingFields(final String actualName,
+                                          final String expectedName) throws IOException {
+        Map<String, JsonNode> actualFields = readRemainingFields(actual, actualName);
+        Map<String, JsonNode> expectedFields = readRemainingFields(expected, expectedName);
+        for (Map.Entry<String, JsonNode> field : expectedFields.entrySet()) {
+            JsonNode actualValue = actualFields.get(field.getKey());
+            if (!field.getValue().equals(actualValue)) {
+                path.addLast("." + field.getKey());
+                return difference(actualValue == null ? "missing" : actualValue.toString(),
+                        field.getValue().toString());
+            }
+        }
+        for (String name : actualFields.keySet()) {
+            if (!expectedFields.containsKey(name)) {
+                path.addLast("." + name);
+                return difference(actualFields.get(name).toString(), "missing");
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, JsonNode> readRemainingFields(final JsonParser parser,
+                                                             final String firstName)
+            throws IOException {
+        Map<String, JsonNode> fields = new LinkedHashMap<>();
+        String name = firstName;
+        while (name != null) {
+            parser.nextToken();
+            fields.put(name, parser.readValueAsTree());
+            name = parser.nextToken() == JsonToken.FIELD_NAME ? parser.getCurrentName() : null;
+        }
+        return fields;
+    }
+
+    private static String describe(final JsonParser parser, final JsonToken token)
+            throws IOException {
+        if (token == null) {
+            return "end of file";
+        }
+        switch (token) {
+            case START_ARRAY:
+                return "an array";
+            case START_OBJECT:
+                return "an object";
+            case END_ARRAY:
+                return "end of array";
+            case END_OBJECT:
+                return "end of object";
+            case FIELD_NAME:
+                return "field \"" + parser.getCurrentName() + "\"";
+            case VALUE_STRING:
+                return '"' + parser.getText() + '"';
+            default:
+                return parser.getText();
+        }
+    }
+
+    private String difference(final String actualValue, final String expectedValue) {
+        StringBuilder builder = new StringBuilder("$");
+        for (String element : path) {
+            builder.append(element);
+        }
+        return builder.append(": expected ").append(expectedValue)
+                .append(" but was ").append(actualValue).toString();
+    }
+}
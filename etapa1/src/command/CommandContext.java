@@ -0,0 +1,35 @@
+package command;
+
+import fileio.input.LibraryInput;
+import music.PlaylistRegistry;
+import search.SearchCache;
+
+/**
+ * The state shared by all the commands of an input file: the library, the created
+ * playlists and the cached search results
+ */
+public final class CommandContext {
+
+    private final LibraryInput library;
+    private final PlaylistRegistry playlists;
+    private final SearchCache searchCache;
+
+    public CommandContext(final LibraryInput library, final PlaylistRegistry playlists,
+                          final SearchCache searchCache) {
+        this.library = library;
+        this.playlists = playlists;
+        this.searchCache = searchCache;
+    }
+
+    public LibraryInput getLibrary() {
+        return library;
+    }
+
+    public PlaylistRegistry getPlaylists() {
+        return playlists;
+    }
+
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+}
@@ -0,0 +1,142 @@
+package command;
+
+import fileio.input.CommandInput;
+import fileio.input.CommandType;
+import fileio.output.CommandOutput;
+import service.Service;
+import user.UserDetails;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs every command with the handler of its type. The handlers are kept in an array
+ * indexed by the CommandType, so a command is dispatched without comparing its name.
+ * Every type also counts how many commands it ran and how long they took.
+ */
+public final class CommandDispatcher {
+
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private static final CommandHandler[] HANDLERS =
+            new CommandHandler[CommandType.values().length];
+    private static final LongAdder[] COUNTS = new LongAdder[CommandType.values().length];
+    private static final LongAdder[] NANOS = new LongAdder[CommandType.values().length];
+
+    static {
+        register(CommandType.SEARCH, new SearchHandler());
+        register(CommandType.SELECT, new MessageHandler((command, user, context) ->
+                Service.selectCommand(command, user)));
+        register(CommandType.CREATE_PLAYLIST, new MessageHandler((command, user, context) ->
+                Service.createPlaylist(context.getPlaylists(), command)));
+        register(CommandType.LOAD, new MessageHandler((command, user, context) ->
+                Service.load(command.getTimestamp(), user)));
+        register(CommandType.STATUS, new StatusHandler());
+        register(CommandType.PLAY_PAUSE, new MessageHandler((command, user, context) ->
+                Service.playPause(command.getTimestamp(), user)));
+        register(CommandType.REPEAT, new MessageHandler((command, user, context) ->
+                Service.repeat(user, command.getTimestamp())));
+        register(CommandType.SHUFFLE, new MessageHandler((command, user, context) ->
+                Service.shuffle(user, command.getSeed(), command.getTimestamp())));
+        register(CommandType.BACKWARD, new MessageHandler((command, user, context) ->
+                Service.backward(user, command.getTimestamp())));
+        register(CommandType.FORWARD, new MessageHandler((command, user, context) ->
+                Service.forward(user, command.getTimestamp())));
+        register(CommandType.NEXT, new MessageHandler((command, user, context) ->
+                Service.next(user, command.getTimestamp())));
+        register(CommandType.PREV, new MessageHandler((command, user, context) ->
+                Service.prev(user, command.getTimestamp())));
+        register(CommandType.ADD_REMOVE_IN_PLAYLIST, new MessageHandler((command, user, context)
+                -> Service.addRemove(command.getPlaylistId(), user, context.getPlaylists())));
+        register(CommandType.LIKE, new MessageHandler((command, user, context) ->
+                Service.like(user, command.getTimestamp())));
+        register(CommandType.SHOW_PREFERRED_SONGS, new ShowPreferredSongsHandler());
+        register(CommandType.SHOW_PLAYLISTS, new ShowPlaylistsHandler());
+        register(CommandType.GET_TOP5_SONGS, new TopSongsHandler());
+        register(CommandType.GET_TOP5_PLAYLISTS, new TopPlaylistsHandler());
+        register(CommandType.FOLLOW, new MessageHandler((command, user, context) ->
+                Service.follow(user)));
+        register(CommandType.SWITCH_VISIBILITY, new MessageHandler((command, user, context) ->
+                Service.switchVisibility(command.getPlaylistId(), command.getUsername(),
+                        context.getPlaylists())));
+    }
+
+    private CommandDispatcher() {
+    }
+
+    private static void register(final CommandType type, final CommandHandler handler) {
+        HANDLERS[type.ordinal()] = handler;
+        COUNTS[type.ordinal()] = new LongAdder();
+        NANOS[type.ordinal()] = new LongAdder();
+    }
+
+    /**
+     * Runs a command with the handler of its type
+     *
+     * @param command the command
+     * @param user    the user that gave the command
+     * @param context the state shared by all the commands
+     * @return the output of the command or null for unknown commands
+     */
+    public static CommandOutput dispatch(final CommandInput command, final UserDetails user,
+                                         final CommandContext context) {
+        CommandType type = command.getCommandType();
+        if (type == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        CommandOutput output = HANDLERS[type.ordinal()].handle(command, user, context);
+        NANOS[type.ordinal()].add(System.nanoTime() - start);
+        COUNTS[type.ordinal()].increment();
+        return output;
+    }
+
+    /**
+     * @param type type of the commands
+     * @return the handler that runs them
+     */
+    public static CommandHandler getHandler(final CommandType type) {
+        return HANDLERS[type.ordinal()];
+    }
+
+    /**
+     * @param type type of the commands
+     * @return how many commands of this type were run
+     */
+    public static long getCount(final CommandType type) {
+        return COUNTS[type.ordinal()].sum();
+    }
+
+    /**
+     * @param type type of the commands
+     * @return how many nanoseconds the commands of this type took
+     */
+    public static long getNanos(final CommandType type) {
+        return NANOS[type.ordinal()].sum();
+    }
+
+    /**
+     * @return the debug counters, one "command=count/microseconds" pair for every command
+     * that was run
+     */
+    public static String describeCounters() {
+        StringBuilder builder = new StringBuilder("commands:");
+        for (CommandType type : CommandType.values()) {
+            long count = getCount(type);
+            if (count > 0) {
+                builder.append(' ').append(type.getName()).append('=').append(count)
+                        .append('/').append(getNanos(type) / NANOS_PER_MICRO).append("us");
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Resets all the debug counters
+     */
+    public static void resetCounters() {
+        for (CommandType type : CommandType.values()) {
+            COUNTS[type.ordinal()].reset();
+            NANOS[type.ordinal()].reset();
+        }
+    }
+}
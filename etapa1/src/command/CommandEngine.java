@@ -0,0 +1,155 @@
+package command;
+
+import fileio.input.CommandInput;
+import fileio.input.CommandType;
+import fileio.output.CommandOutput;
+import fileio.output.OutputWriter;
+import music.SourceType;
+import user.UserDetails;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the commands of an input file and writes their outputs in the input order.
+ * With more than one partition, every user is given to a partition by its name and
+ * every partition runs the commands of its users, in order, on its own thread. The
+ * commands that change the state shared by the users (likes, followers, playlists) or
+ * read it as a whole (the top 5, playlist searches) are a barrier: they run only after
+ * all the previous commands finished and before any of the next ones start, so every
+ * command sees the same state as when all the commands run one after another.
+ */
+public final class CommandEngine implements Closeable {
+    /**
+     * How many commands can wait for their output to be written before
+     * reading the next command blocks
+     */
+    public static final int MAX_PENDING = 1024;
+
+    private static final Set<CommandType> SHARED_STATE = EnumSet.of(
+            CommandType.CREATE_PLAYLIST,
+            CommandType.ADD_REMOVE_IN_PLAYLIST,
+            CommandType.LIKE,
+            CommandType.GET_TOP5_SONGS,
+            CommandType.GET_TOP5_PLAYLISTS,
+            CommandType.FOLLOW,
+            CommandType.SWITCH_VISIBILITY);
+
+    private final CommandContext context;
+    private final OutputWriter outputs;
+    private final Map<String, UserDetails> usersDetails = new HashMap<>();
+    private final ExecutorService[] partitions;
+    // The outputs of the commands given to the partitions, in input order.
+    private final Deque<Future<CommandOutput>> pending = new ArrayDeque<>();
+
+    /**
+     * @param context        the state shared by all the commands
+     * @param outputs        where the outputs are written
+     * @param partitionCount how many threads run the commands, 1 to run them
+     *                       on the calling thread
+     */
+    public CommandEngine(final CommandContext context, final OutputWriter outputs,
+                         final int partitionCount) {
+        this.context = context;
+        this.outputs = outputs;
+        this.partitions = new ExecutorService[partitionCount > 1 ? partitionCount : 0];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = Executors.newSingleThreadExecutor();
+        }
+    }
+
+    /**
+     * Runs a command, right away or on the partition of its user
+     *
+     * @param command the command
+     * @throws IOException if an output can't be written
+     */
+    public void submit(final CommandInput command) throws IOException {
+        UserDetails user = usersDetails.computeIfAbsent(command.getUsername(), UserDetails::new);
+        if (partitions.length == 0 || isBarrier(command)) {
+            // Everything given to the partitions must finish before this command runs.
+            writePending(0);
+            write(run(command, user));
+            return;
+        }
+        int partition = Math.floorMod(Objects.hashCode(command.getUsername()),
+                partitions.length);
+        pending.addLast(partitions[partition].submit(() -> run(command, user)));
+        writePending(MAX_PENDING);
+    }
+
+    private static boolean isBarrier(final CommandInput command) {
+        CommandType type = command.getCommandType();
+        if (type == CommandType.SEARCH) {
+            return SourceType.fromName(command.getType()) == SourceType.PLAYLIST;
+        }
+        return type != null && SHARED_STATE.contains(type);
+    }
+
+    private CommandOutput run(final CommandInput command, final UserDetails user) {
+        CommandOutput output = CommandDispatcher.dispatch(command, user, context);
+        user.setLastCommand(command.getCommand());
+        return output;
+    }
+
+    /**
+     * Writes the finished outputs, in input order, waiting for them until at most
+     * the given number of commands are still running
+     */
+    private void writePending(final int maxPending) throws IOException {
+        while (!pending.isEmpty()
+                && (pending.size() > maxPending || pending.peekFirst().isDone())) {
+            write(waitFor(pending.removeFirst()));
+        }
+    }
+
+    private void write(final CommandOutput output) throws IOException {
+        if (output != null) {
+            outputs.write(output);
+        }
+    }
+
+    private static CommandOutput waitFor(final Future<CommandOutput> output) throws IOException {
+        try {
+            return output.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running the commands", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Waits for all the commands, writes their outputs and stops the partitions
+     *
+     * @throws IOException if an output can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writePending(0);
+        } finally {
+            for (ExecutorService partition : partitions) {
+                partition.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package command;
+
+import fileio.input.CommandInput;
+import fileio.output.CommandOutput;
+import user.UserDetails;
+
+/**
+ * Runs one type of command
+ */
+public interface CommandHandler {
+    /**
+     * Runs the command and builds its output
+     *
+     * @param command the command
+     * @param user    the user that gave the command
+     * @param context the state shared by all the commands
+     * @return the output of the command
+     */
+    CommandOutput handle(CommandInput command, UserDetails user, CommandContext context);
+}
@@ -0,0 +1,39 @@
+package command;
+
+import fileio.input.CommandInput;
+import fileio.output.CommandOutput;
+import fileio.output.MessageOutput;
+import user.UserDetails;
+
+/**
+ * Handler for the commands whose output is only a message
+ */
+public final class MessageHandler implements CommandHandler {
+
+    /**
+     * Runs a command and returns its message
+     */
+    public interface Action {
+        /**
+         * @param command the command
+         * @param user    the user that gave the command
+         * @param context the state shared by all the commands
+         * @return the message of the command
+         */
+        String run(CommandInput command, UserDetails user, CommandContext context);
+    }
+
+    private final Action action;
+
+    public MessageHandler(final Action action) {
+        this.action = action;
+    }
+
+    @Override
+    public CommandOutput handle(final CommandInput command, final UserDetails user,
+                                final CommandContext context) {
+        String message = action.run(command, user, context);
+        return new MessageOutput(command.getCommand(), command.getUsername(),
+                command.getTimestamp(), message);
+    }
+}
@@ -0,0 +1,68 @@
+package command;
+
+import fileio.extended.PodcastInputExtended;
+import fileio.extended.SongInputExtended;
+import fileio.input.CommandInput;
+import fileio.input.LibraryInput;
+import fileio.output.CommandOutput;
+import fileio.output.SearchOutput;
+import music.Playlist;
+import music.PlaylistRegistry;
+import music.SourceType;
+import search.SearchCache;
+import service.Service;
+import user.UserDetails;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handler for the search command. Equal searches share their results until the
+ * searched data changes.
+ */
+public final class SearchHandler implements CommandHandler {
+
+    @Override
+    public CommandOutput handle(final CommandInput command, final UserDetails user,
+                                final CommandContext context) {
+        String username = command.getUsername();
+        LibraryInput library = context.getLibrary();
+        PlaylistRegistry playlists = context.getPlaylists();
+        SearchCache searchCache = context.getSearchCache();
+
+        user.resetPlayer(command.getTimestamp());
+        SourceType type = SourceType.fromName(command.getType());
+        user.setTypeSearched(type);
+        user.setSelected(false);
+        List<String> results = new ArrayList<>();
+        if (type == SourceType.SONG) {
+            List<SongInputExtended> songRes = searchCache.get("song",
+                    command.getFilters(), null, library.getVersion(),
+                    () -> Service.searchSongs(command.getFilters(), library.getSongs(),
+                            library.getSongIndex()));
+            user.setSearchSongResults(songRes);
+            for (SongInputExtended songRe : songRes) {
+                results.add(songRe.getName());
+            }
+        } else if (type == SourceType.PLAYLIST) {
+            List<Playlist> playlistsRes = searchCache.get("playlist",
+                    command.getFilters(), username, playlists.getVersion(),
+                    () -> Service.searchPlaylists(username, command.getFilters(), playlists));
+            user.setSearchPlaylistsResults(playlistsRes);
+            for (Playlist playlistsRe : playlistsRes) {
+                results.add(playlistsRe.getName());
+            }
+        } else if (type == SourceType.PODCAST) {
+            List<PodcastInputExtended> podcastRes = searchCache.get("podcast",
+                    command.getFilters(), null, library.getVersion(),
+                    () -> Service.searchPodcasts(command.getFilters(),
+                            library.getPodcasts(), library.getPodcastNames()));
+            user.setSearchPodcastsResults(podcastRes);
+            for (PodcastInputExtended podcastRe : podcastRes) {
+                results.add(podcastRe.getName());
+            }
+        }
+        return new SearchOutput(command.getCommand(), username,
+                command.getTimestamp(), results);
+    }
+}
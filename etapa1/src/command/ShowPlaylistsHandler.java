@@ -0,0 +1,21 @@
+package command;
+
+import fileio.input.CommandInput;
+import fileio.output.CommandOutput;
+import fileio.output.PlaylistsOutput;
+import service.Service;
+import user.UserDetails;
+
+/**
+ * Handler for the showPlaylists command
+ */
+public final class ShowPlaylistsHandler implements CommandHandler {
+
+    @Override
+    public CommandOutput handle(final CommandInput command, final UserDetails user,
+                                final CommandContext context) {
+        return new PlaylistsOutput(command.getCommand(), command.getUsername(),
+                command.getTimestamp(), Service.retrieveUserPlaylists(command.getUsername(),
+                context.getPlaylists()));
+    }
+}
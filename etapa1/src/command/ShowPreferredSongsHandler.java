@@ -0,0 +1,20 @@
+package command;
+
+import fileio.input.CommandInput;
+import fileio.output.CommandOutput;
+import fileio.output.PreferredOutput;
+import service.Service;
+import user.UserDetails;
+
+/**
+ * Handler for the showPreferredSongs command
+ */
+public final class ShowPreferredSongsHandler implements CommandHandler {
+
+    @Override
+    public CommandOutput handle(final CommandInput command, final UserDetails user,
+                                final CommandContext context) {
+        return new PreferredOutput(command.getCommand(), command.getUsername(),
+                command.getTimestamp(), Service.showPreferredSongs(user));
+    }
+}
@@ -0,0 +1,21 @@
+package command;
+
+import fileio.input.CommandInput;
+import fileio.output.CommandOutput;
+import fileio.output.StatusOutput;
+import service.Service;
+import user.UserDetails;
+
+/**
+ * Handler for the status command
+ */
+public final class StatusHandler implements CommandHandler {
+
+    @Override
+    public CommandOutput handle(final CommandInput command, final UserDetails user,
+                                final CommandContext context) {
+        return new StatusOutput(command.getCommand(), command.getUsername(),
+                command.getTimestamp(),
+                Service.status(command.getTimestamp(), user));
+    }
+}
@@ -0,0 +1,20 @@
+package command;
+
+import fileio.input.CommandInput;
+import fileio.output.CommandOutput;
+import fileio.output.Top5Output;
+import service.Service;
+import user.UserDetails;
+
+/**
+ * Handler for the getTop5Playlists command
+ */
+public final class TopPlaylistsHandler implements CommandHandler {
+
+    @Override
+    public CommandOutput handle(final CommandInput command, final UserDetails user,
+                                final CommandContext context) {
+        return new Top5Output(command.getCommand(), command.getTimestamp(),
+                Service.getTop5P(context.getPlaylists()));
+    }
+}
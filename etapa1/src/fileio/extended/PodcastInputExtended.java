@@ -3,16 +3,72 @@ package fileio.extended;
 import fileio.input.EpisodeInput;
 import fileio.input.PodcastInput;
 
+import java.util.ArrayList;
+
 public class PodcastInputExtended extends PodcastInput {
+    // episodeStarts[i] is the time episode i starts at, the last value is the podcast duration.
+    private int[] episodeStarts = new int[1];
+
+    /**
+     * Sets the episodes and computes the time every one of them starts at
+     * @param episodes the episodes of the podcast
+     */
+    @Override
+    public void setEpisodes(final ArrayList<EpisodeInput> episodes) {
+        super.setEpisodes(episodes);
+        int size = episodes == null ? 0 : episodes.size();
+        episodeStarts = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            episodeStarts[i + 1] = episodeStarts[i] + episodes.get(i).getDuration();
+        }
+    }
+
     /**
      * Retrieve the podcast entire duration
      * @return duration of current podcast
      */
     public int getDuration() {
-        int duration = 0;
-        for (EpisodeInput episode : super.getEpisodes()) {
-            duration += episode.getDuration();
+        return episodeStarts[episodeStarts.length - 1];
+    }
+
+    /**
+     * @param index index of an episode, or the number of episodes for the end of the podcast
+     * @return the time the episode starts at
+     */
+    public final int getEpisodeStart(final int index) {
+        return episodeStarts[index];
+    }
+
+    /**
+     * @param time time from the start of the podcast
+     * @return index of the first episode that ends after the given time,
+     * or the number of episodes if none
+     */
+    public final int findEpisode(final int time) {
+        return firstEnd(time, false);
+    }
+
+    /**
+     * @param time time from the start of the podcast
+     * @return index of the first episode that ends at or after the given time,
+     * or the number of episodes if none
+     */
+    public final int findEpisodeInclusive(final int time) {
+        return firstEnd(time, true);
+    }
+
+    private int firstEnd(final int time, final boolean inclusive) {
+        int low = 0;
+        int high = episodeStarts.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int end = episodeStarts[middle + 1];
+            if (end > time || (inclusive && end == time)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
         }
-        return duration;
+        return low;
     }
 }
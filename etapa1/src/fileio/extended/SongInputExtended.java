@@ -1,16 +1,51 @@
 package fileio.extended;
 
 import fileio.input.SongInput;
+import search.Leaderboard;
 
 public class SongInputExtended extends SongInput {
     private int lastTimestampLike;
 
+    private int ordinal;
+
+    private Leaderboard leaderboard;
+
+    public SongInputExtended() {
+    }
+
+    /**
+     * Creates a copy of a song that shares its details but has its own likes,
+     * so it can be liked without changing the original song
+     *
+     * @param song the copied song
+     */
+    public SongInputExtended(final SongInputExtended song) {
+        setName(song.getName());
+        setDuration(song.getDuration());
+        setAlbum(song.getAlbum());
+        setTags(song.getTags());
+        setLyrics(song.getLyrics());
+        setGenre(song.getGenre());
+        setReleaseYear(song.getReleaseYear());
+        setArtist(song.getArtist());
+        this.likes = song.likes;
+        this.lastTimestampLike = song.lastTimestampLike;
+    }
+
     public Integer getLikes() {
         return likes;
     }
 
+    /**
+     * Sets the number of likes, also moving the song in the leaderboard
+     *
+     * @param likes the number of likes
+     */
     public final void setLikes(final int likes) {
         this.likes = likes;
+        if (leaderboard != null) {
+            leaderboard.update(ordinal, likes);
+        }
     }
 
     private int likes;
@@ -23,6 +58,9 @@ public class SongInputExtended extends SongInput {
     public final void incrementLike(final int timestamp) {
         likes++;
         lastTimestampLike = timestamp;
+        if (leaderboard != null) {
+            leaderboard.update(ordinal, likes);
+        }
     }
 
     /**
@@ -33,5 +71,23 @@ public class SongInputExtended extends SongInput {
     public final void decrementLike(final int timestamp) {
         likes--;
         lastTimestampLike = timestamp;
+        if (leaderboard != null) {
+            leaderboard.update(ordinal, likes);
+        }
+    }
+
+    public final int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * Saves the position of the song in the library and the leaderboard that ranks it
+     *
+     * @param ordinal     position in the library
+     * @param leaderboard the leaderboard
+     */
+    public final void setLeaderboard(final int ordinal, final Leaderboard leaderboard) {
+        this.ordinal = ordinal;
+        this.leaderboard = leaderboard;
     }
 }
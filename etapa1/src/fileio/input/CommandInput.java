@@ -3,6 +3,7 @@ package fileio.input;
 public final class CommandInput {
 
     private String command;
+    private CommandType commandType;
     private String username;
     private int timestamp;
     private String type;
@@ -28,8 +29,20 @@ public final class CommandInput {
         return command;
     }
 
+    /**
+     * Sets the command name and resolves its type
+     * @param command name of the command
+     */
     public void setCommand(final String command) {
         this.command = command;
+        this.commandType = CommandType.fromName(command);
+    }
+
+    /**
+     * @return the type of the command or null if the command is unknown
+     */
+    public CommandType getCommandType() {
+        return commandType;
     }
 
     public String getUsername() {
@@ -0,0 +1,59 @@
+package fileio.input;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Reads the commands of an input file one at a time, so only the command that is run
+ * is kept in memory, no matter how many commands the file has
+ */
+public final class CommandReader implements Closeable {
+
+    private final JsonParser parser;
+
+    /**
+     * Opens the input file and moves to its first command
+     *
+     * @param objectMapper mapper used to read the commands
+     * @param file         input file, an array of commands
+     * @throws IOException if the file can't be read or is not an array
+     */
+    public CommandReader(final ObjectMapper objectMapper, final File file) throws IOException {
+        this.parser = objectMapper.getFactory().createParser(file);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("Expected an array of commands in " + file);
+        }
+    }
+
+    /**
+     * Reads the next command from the file
+     *
+     * @return the command or null if the array of commands ended
+     * @throws IOException if the command can't be read, or if the file has something else
+     * than a command or ends before the array, so a damaged file doesn't pass for a
+     * shorter one
+     */
+    public CommandInput next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a command or the end of the "
+                    + "commands, found " + (token == null ? "the end of the file" : token));
+        }
+        return parser.readValueAs(CommandInput.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,57 @@
+package fileio.input;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The commands that can be given in the input, resolved from their names once, when the
+ * command is read
+ */
+public enum CommandType {
+    SEARCH("search"),
+    SELECT("select"),
+    CREATE_PLAYLIST("createPlaylist"),
+    LOAD("load"),
+    STATUS("status"),
+    PLAY_PAUSE("playPause"),
+    REPEAT("repeat"),
+    SHUFFLE("shuffle"),
+    BACKWARD("backward"),
+    FORWARD("forward"),
+    NEXT("next"),
+    PREV("prev"),
+    ADD_REMOVE_IN_PLAYLIST("addRemoveInPlaylist"),
+    LIKE("like"),
+    SHOW_PREFERRED_SONGS("showPreferredSongs"),
+    SHOW_PLAYLISTS("showPlaylists"),
+    GET_TOP5_SONGS("getTop5Songs"),
+    GET_TOP5_PLAYLISTS("getTop5Playlists"),
+    FOLLOW("follow"),
+    SWITCH_VISIBILITY("switchVisibility");
+
+    private static final Map<String, CommandType> BY_NAME = new HashMap<>();
+
+    static {
+        for (CommandType type : values()) {
+            BY_NAME.put(type.name, type);
+        }
+    }
+
+    private final String name;
+
+    CommandType(final String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param commandName name of the command, as given in the input
+     * @return the command with the given name or null if there is none
+     */
+    public static CommandType fromName(final String commandName) {
+        return commandName == null ? null : BY_NAME.get(commandName);
+    }
+}
@@ -12,6 +12,7 @@ public final class Filters {
     private String genre;
     private String releaseYear;
     private String artist;
+    private String duration;
 
     private Filters() {
     }
@@ -67,4 +68,12 @@ public final class Filters {
     public void setArtist(final String artist) {
         this.artist = artist;
     }
+
+    public String getDuration() {
+        return duration;
+    }
+
+    public void setDuration(final String duration) {
+        this.duration = duration;
+    }
 }
@@ -0,0 +1,82 @@
+package fileio.input;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import snapshot.LibrarySnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the libraries that were already read, so a library file is parsed and indexed
+ * only once per process. Every run gets its own copy of the cached library. The files
+ * ending with .bin are read as binary snapshots, the others as JSON.
+ */
+public final class LibraryCache {
+
+    /**
+     * Extension of the binary library snapshots, the other files are read as JSON
+     */
+    public static final String SNAPSHOT_EXTENSION = ".bin";
+
+    private static final Map<String, Entry> LIBRARIES = new HashMap<>();
+
+    private LibraryCache() {
+    }
+
+    /**
+     * A parsed library and the modification time of its file when it was read
+     */
+    private static final class Entry {
+        private final long lastModified;
+        private final LibraryInput library;
+
+        Entry(final long lastModified, final LibraryInput library) {
+            this.lastModified = lastModified;
+            this.library = library;
+        }
+    }
+
+    /**
+     * Returns a copy of the library from the given file, reading the file only if it wasn't
+     * read before or it changed since then
+     *
+     * @param objectMapper mapper used to read the library
+     * @param file         library file
+     * @return a copy of the library, that can be changed by a single run
+     * @throws IOException if the file can't be read
+     */
+    public static LibraryInput load(final ObjectMapper objectMapper,
+                                    final File file) throws IOException {
+        return getShared(objectMapper, file).copy();
+    }
+
+    /**
+     * @param objectMapper mapper used to read the library
+     * @param file         library file
+     * @return the cached library, that must not be changed
+     * @throws IOException if the file can't be read
+     */
+    static synchronized LibraryInput getShared(final ObjectMapper objectMapper,
+                                               final File file) throws IOException {
+        String path = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        Entry entry = LIBRARIES.get(path);
+        if (entry == null || entry.lastModified != lastModified) {
+            LibraryInput library = file.getName().endsWith(SNAPSHOT_EXTENSION)
+                    ? LibrarySnapshot.read(file)
+                    : objectMapper.readValue(file, LibraryInput.class);
+            entry = new Entry(lastModified, library);
+            LIBRARIES.put(path, entry);
+        }
+        return entry.library;
+    }
+
+    /**
+     * Forgets all the cached libraries
+     */
+    public static synchronized void clear() {
+        LIBRARIES.clear();
+    }
+}
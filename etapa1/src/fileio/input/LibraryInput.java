@@ -2,31 +2,136 @@ package fileio.input;
 
 import fileio.extended.PodcastInputExtended;
 import fileio.extended.SongInputExtended;
+import search.PrefixIndex;
+import search.SongIndex;
+import search.Leaderboard;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public final class LibraryInput {
+    private static final int TOP_SONGS_SIZE = 5;
+
     private ArrayList<SongInputExtended> songs;
     private ArrayList<PodcastInputExtended> podcasts;
     private ArrayList<UserInput> users;
+    private SongIndex songIndex;
+    private Leaderboard songLeaderboard;
+    private PrefixIndex podcastNames;
+    private long version;
 
     public LibraryInput() {
     }
 
+    /**
+     * Creates a library from its parts, with the search indexes already built
+     *
+     * @param songs        library songs
+     * @param podcasts     library podcasts
+     * @param users        library users
+     * @param songIndex    index built over the songs
+     * @param podcastNames index built over the podcast names
+     */
+    public LibraryInput(final ArrayList<SongInputExtended> songs,
+                        final ArrayList<PodcastInputExtended> podcasts,
+                        final ArrayList<UserInput> users,
+                        final SongIndex songIndex,
+                        final PrefixIndex podcastNames) {
+        this.songs = songs;
+        this.songIndex = songIndex;
+        this.songLeaderboard = createLeaderboard(songs);
+        this.podcasts = podcasts;
+        this.podcastNames = podcastNames;
+        this.users = users;
+        this.version = 1;
+    }
+
     public ArrayList<SongInputExtended> getSongs() {
         return songs;
     }
 
+    /**
+     * Saves the library songs and builds the search index and the leaderboard over them
+     * @param songs library songs
+     */
     public void setSongs(final ArrayList<SongInputExtended> songs) {
         this.songs = songs;
+        this.songIndex = new SongIndex(songs);
+        this.songLeaderboard = createLeaderboard(songs);
+        version++;
+    }
+
+    private static Leaderboard createLeaderboard(final List<SongInputExtended> songs) {
+        int[] likes = new int[songs.size()];
+        for (int i = 0; i < likes.length; i++) {
+            likes[i] = songs.get(i).getLikes();
+        }
+        Leaderboard leaderboard =
+                new Leaderboard(i -> songs.get(i).getName(), TOP_SONGS_SIZE, likes);
+        for (int i = 0; i < likes.length; i++) {
+            songs.get(i).setLeaderboard(i, leaderboard);
+        }
+        return leaderboard;
+    }
+
+    /**
+     * Creates a copy of the library for a new run. The songs are copied, so their likes
+     * and the leaderboard are only changed by that run, everything else (the podcasts,
+     * the users and the search indexes) is shared, since it never changes
+     *
+     * @return the copy
+     */
+    public LibraryInput copy() {
+        LibraryInput library = new LibraryInput();
+        ArrayList<SongInputExtended> songsCopy = new ArrayList<>(songs.size());
+        for (SongInputExtended song : songs) {
+            songsCopy.add(new SongInputExtended(song));
+        }
+        library.songs = songsCopy;
+        library.songIndex = songIndex;
+        library.songLeaderboard = createLeaderboard(songsCopy);
+        library.podcasts = podcasts;
+        library.podcastNames = podcastNames;
+        library.users = users;
+        library.version = version;
+        return library;
+    }
+
+    public Leaderboard getSongLeaderboard() {
+        return songLeaderboard;
+    }
+
+    public SongIndex getSongIndex() {
+        return songIndex;
     }
 
     public ArrayList<PodcastInputExtended> getPodcasts() {
         return podcasts;
     }
 
+    /**
+     * Saves the library podcasts and builds the name index over them
+     * @param podcasts library podcasts
+     */
     public void setPodcasts(final ArrayList<PodcastInputExtended> podcasts) {
         this.podcasts = podcasts;
+        List<String> names = new ArrayList<>(podcasts.size());
+        for (PodcastInputExtended podcast : podcasts) {
+            names.add(podcast.getName());
+        }
+        this.podcastNames = new PrefixIndex(names);
+        version++;
+    }
+
+    /**
+     * @return counter increased every time the songs or the podcasts are changed
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public PrefixIndex getPodcastNames() {
+        return podcastNames;
     }
 
     public ArrayList<UserInput> getUsers() {
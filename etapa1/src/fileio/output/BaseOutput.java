@@ -1,12 +1,15 @@
 package fileio.output;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  *Class that defines a base output containing only the command name, user and timestamp
  */
-public class BaseOutput {
+public class BaseOutput implements CommandOutput {
     private final String command;
     private final String user;
     private final int timestamp;
@@ -19,14 +22,39 @@ public class BaseOutput {
         this.timestamp = timestamp;
     }
 
+    /**
+     * Writes this output as a JSON object
+     * @param generator generator the output is written to
+     * @throws IOException if the output can't be written
+     */
+    @Override
+    public final void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeFields(generator);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the fields of this output, in the same order as in the object node
+     * @param generator generator the fields are written to
+     * @throws IOException if the fields can't be written
+     */
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        generator.writeFieldName(OutputFields.COMMAND);
+        generator.writeString(command);
+        generator.writeFieldName(OutputFields.USER);
+        generator.writeString(user);
+        generator.writeFieldName(OutputFields.TIMESTAMP);
+        generator.writeNumber(timestamp);
+    }
+
     /**
      * Returns an object node that is saved to the output file
      * @return Object node
      */
+    @Override
     public ObjectNode toObjectNode() {
-        ObjectMapper mapper = new ObjectMapper();
-
-        ObjectNode node = mapper.createObjectNode();
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
         node.put("command", command);
         node.put("user", user);
         node.put("timestamp", timestamp);
@@ -0,0 +1,26 @@
+package fileio.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+
+/**
+ * The output of a command, that can be written straight to a generator or turned into a node
+ */
+public interface CommandOutput {
+    /**
+     * Writes this output as a JSON object
+     *
+     * @param generator generator the output is written to
+     * @throws IOException if the output can't be written
+     */
+    void writeTo(JsonGenerator generator) throws IOException;
+
+    /**
+     * Returns an object node with the same fields as the written output
+     *
+     * @return Object node
+     */
+    ObjectNode toObjectNode();
+}
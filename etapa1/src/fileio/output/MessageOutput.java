@@ -1,7 +1,10 @@
 package fileio.output;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 public class MessageOutput extends BaseOutput {
 
     private final String message;
@@ -14,6 +17,13 @@ public class MessageOutput extends BaseOutput {
         this.message = message;
     }
 
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+        generator.writeFieldName(OutputFields.MESSAGE);
+        generator.writeString(message);
+    }
+
     /**
      * Method that transforms this object to a node object
      * @return ObjectNode
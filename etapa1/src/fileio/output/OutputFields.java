@@ -0,0 +1,49 @@
+package fileio.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The names of the output fields, encoded once and shared by all the outputs
+ */
+final class OutputFields {
+    static final SerializedString COMMAND = new SerializedString("command");
+    static final SerializedString USER = new SerializedString("user");
+    static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    static final SerializedString MESSAGE = new SerializedString("message");
+    static final SerializedString RESULTS = new SerializedString("results");
+    static final SerializedString RESULT = new SerializedString("result");
+    static final SerializedString STATS = new SerializedString("stats");
+    static final SerializedString NAME = new SerializedString("name");
+    static final SerializedString REMAINED_TIME = new SerializedString("remainedTime");
+    static final SerializedString REPEAT = new SerializedString("repeat");
+    static final SerializedString SHUFFLE = new SerializedString("shuffle");
+    static final SerializedString PAUSED = new SerializedString("paused");
+    static final SerializedString SONGS = new SerializedString("songs");
+    static final SerializedString VISIBILITY = new SerializedString("visibility");
+    static final SerializedString FOLLOWERS = new SerializedString("followers");
+
+    private OutputFields() {
+    }
+
+    /**
+     * Writes a list of strings as an array field
+     *
+     * @param generator generator the field is written to
+     * @param name      name of the field
+     * @param values    the strings
+     * @throws IOException if the field can't be written
+     */
+    static void writeStringArray(final JsonGenerator generator, final SerializedString name,
+                                 final List<String> values) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeStartArray();
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+}
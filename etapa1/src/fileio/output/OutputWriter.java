@@ -0,0 +1,67 @@
+package fileio.output;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes the outputs of the commands to the output file as soon as they are produced.
+ * The file is the same JSON array that was written at the end of the run before, with the
+ * default pretty printer, or the same array without whitespace in compact mode.
+ */
+public final class OutputWriter implements Closeable {
+    /**
+     * After how many outputs the written data is flushed to the file
+     */
+    public static final int FLUSH_INTERVAL = 64;
+
+    private final JsonGenerator generator;
+    private int unflushed = 0;
+
+    /**
+     * Creates the output file and starts the array of outputs
+     *
+     * @param objectMapper mapper used to write the outputs
+     * @param file         output file
+     * @param compact      true to write the outputs without whitespace
+     * @throws IOException if the file can't be written
+     */
+    public OutputWriter(final ObjectMapper objectMapper, final File file,
+                        final boolean compact) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(file, JsonEncoding.UTF8);
+        if (!compact) {
+            generator.setPrettyPrinter(new DefaultPrettyPrinter());
+        }
+        generator.writeStartArray();
+    }
+
+    /**
+     * Writes the output of a command
+     *
+     * @param output output of the command
+     * @throws IOException if the file can't be written
+     */
+    public void write(final CommandOutput output) throws IOException {
+        output.writeTo(generator);
+        if (++unflushed == FLUSH_INTERVAL) {
+            generator.flush();
+            unflushed = 0;
+        }
+    }
+
+    /**
+     * Ends the array of outputs and closes the file
+     *
+     * @throws IOException if the file can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+    }
+}
@@ -0,0 +1,72 @@
+package fileio.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fileio.extended.SongInputExtended;
+import music.Playlist;
+
+import java.io.IOException;
+import java.util.List;
+
+public final class PlaylistsOutput extends BaseOutput {
+
+    private final List<Playlist> result;
+
+    public PlaylistsOutput(final String command,
+                           final String user,
+                           final int timestamp,
+                           final List<Playlist> result) {
+        super(command, user, timestamp);
+        this.result = result;
+    }
+
+    private static String getVisibility(final Playlist playlist) {
+        return playlist.isPrivatePlaylist() ? "private" : "public";
+    }
+
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+        generator.writeFieldName(OutputFields.RESULT);
+        generator.writeStartArray();
+        for (Playlist playlist : result) {
+            generator.writeStartObject();
+            generator.writeFieldName(OutputFields.NAME);
+            generator.writeString(playlist.getName());
+            generator.writeFieldName(OutputFields.SONGS);
+            generator.writeStartArray();
+            for (SongInputExtended song : playlist.getSongs()) {
+                generator.writeString(song.getName());
+            }
+            generator.writeEndArray();
+            generator.writeFieldName(OutputFields.VISIBILITY);
+            generator.writeString(getVisibility(playlist));
+            generator.writeFieldName(OutputFields.FOLLOWERS);
+            generator.writeNumber(playlist.getFollowers());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Method that transforms this object to a node object
+     * @return ObjectNode
+     */
+    @Override
+    public ObjectNode toObjectNode() {
+        ObjectNode node = super.toObjectNode();
+        ArrayNode arrayNode = node.putArray("result");
+        for (Playlist playlist : result) {
+            ObjectNode playlistNode = arrayNode.addObject();
+            playlistNode.put("name", playlist.getName());
+            ArrayNode songs = playlistNode.putArray("songs");
+            for (SongInputExtended song : playlist.getSongs()) {
+                songs.add(song.getName());
+            }
+            playlistNode.put("visibility", getVisibility(playlist));
+            playlistNode.put("followers", playlist.getFollowers());
+        }
+        return node;
+    }
+}
@@ -0,0 +1,41 @@
+package fileio.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.List;
+
+public final class PreferredOutput extends BaseOutput {
+
+    private final List<String> result;
+
+    public PreferredOutput(final String command,
+                           final String user,
+                           final int timestamp,
+                           final List<String> result) {
+        super(command, user, timestamp);
+        this.result = result;
+    }
+
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+        OutputFields.writeStringArray(generator, OutputFields.RESULT, result);
+    }
+
+    /**
+     * Method that transforms this object to a node object
+     * @return ObjectNode
+     */
+    @Override
+    public ObjectNode toObjectNode() {
+        ObjectNode node = super.toObjectNode();
+        ArrayNode arrayNode = node.putArray("result");
+        for (String song : result) {
+            arrayNode.add(song);
+        }
+        return node;
+    }
+}
@@ -1,9 +1,10 @@
 package fileio.output;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
 import java.util.List;
 
 public final class SearchOutput extends MessageOutput {
@@ -18,16 +19,20 @@ public final class SearchOutput extends MessageOutput {
         this.results = results;
     }
 
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+        OutputFields.writeStringArray(generator, OutputFields.RESULTS, results);
+    }
+
     @Override
     public ObjectNode toObjectNode() {
-        ObjectMapper mapper = new ObjectMapper();
         ObjectNode node = super.toObjectNode();
 
-        ArrayNode arrayNode = mapper.createArrayNode();
+        ArrayNode arrayNode = node.putArray("results");
         for (String result : results) {
             arrayNode.add(result);
         }
-        node.putArray("results").addAll(arrayNode);
         return node;
     }
 }
@@ -1,9 +1,11 @@
 package fileio.output;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import fileio.Stats;
 
+import java.io.IOException;
+
 public final class StatusOutput extends BaseOutput {
 
     private final Stats stats;
@@ -16,6 +18,24 @@ public final class StatusOutput extends BaseOutput {
         this.stats = stats;
     }
 
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+        generator.writeFieldName(OutputFields.STATS);
+        generator.writeStartObject();
+        generator.writeFieldName(OutputFields.NAME);
+        generator.writeString(stats.getName());
+        generator.writeFieldName(OutputFields.REMAINED_TIME);
+        generator.writeNumber(stats.getRemainedTime());
+        generator.writeFieldName(OutputFields.REPEAT);
+        generator.writeString(stats.getRepeat());
+        generator.writeFieldName(OutputFields.SHUFFLE);
+        generator.writeBoolean(stats.isShuffle());
+        generator.writeFieldName(OutputFields.PAUSED);
+        generator.writeBoolean(stats.isPaused());
+        generator.writeEndObject();
+    }
+
     /**
      * Method that transforms this object to a node object
      * @return ObjectNode
@@ -23,14 +43,12 @@ public final class StatusOutput extends BaseOutput {
     @Override
     public ObjectNode toObjectNode() {
         ObjectNode objectNode =  super.toObjectNode();
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode node = mapper.createObjectNode();
+        ObjectNode node = objectNode.putObject("stats");
         node.put("name", stats.getName());
         node.put("remainedTime", stats.getRemainedTime());
         node.put("repeat", stats.getRepeat());
         node.put("shuffle", stats.isShuffle());
         node.put("paused", stats.isPaused());
-        objectNode.put("stats", node);
         return objectNode;
     }
 }
@@ -0,0 +1,54 @@
+package fileio.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Output of the getTop5 commands, that are not given by a user
+ */
+public final class Top5Output implements CommandOutput {
+
+    private final String command;
+    private final int timestamp;
+    private final List<String> result;
+
+    public Top5Output(final String command,
+                      final int timestamp,
+                      final List<String> result) {
+        this.command = command;
+        this.timestamp = timestamp;
+        this.result = result;
+    }
+
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(OutputFields.COMMAND);
+        generator.writeString(command);
+        generator.writeFieldName(OutputFields.TIMESTAMP);
+        generator.writeNumber(timestamp);
+        OutputFields.writeStringArray(generator, OutputFields.RESULT, result);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Method that transforms this object to a node object
+     * @return ObjectNode
+     */
+    @Override
+    public ObjectNode toObjectNode() {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("command", command);
+        node.put("timestamp", timestamp);
+        ArrayNode arrayNode = node.putArray("result");
+        for (String name : result) {
+            arrayNode.add(name);
+        }
+        return node;
+    }
+}
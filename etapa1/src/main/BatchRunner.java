@@ -0,0 +1,82 @@
+package main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the action for many input files. The runs don't share any state that they change
+ * (every run has its own users, playlists and copy of the library), so the files can be
+ * run at the same time on a fixed number of threads.
+ */
+public final class BatchRunner {
+
+    private BatchRunner() {
+    }
+
+    /**
+     * Runs every input file and writes its output file
+     *
+     * @param files   the output file of every input file
+     * @param threads how many files are run at the same time, all the available processors
+     *                if it is not positive
+     * @throws IOException if a file can't be read or written
+     */
+    public static void run(final Map<String, String> files, final int threads)
+            throws IOException {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        poolSize = Math.min(poolSize, files.size());
+        if (poolSize <= 1) {
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                Main.action(file.getKey(), file.getValue());
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<?>> runs = new ArrayList<>(files.size());
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                runs.add(executor.submit(() -> {
+                    try {
+                        Main.action(file.getKey(), file.getValue());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            for (Future<?> run : runs) {
+                waitFor(run);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void waitFor(final Future<?> run) throws IOException {
+        try {
+            run.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running the input files", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package main;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import command.CommandContext;
+import command.CommandDispatcher;
+import fileio.input.CommandInput;
+import fileio.input.LibraryCache;
+import fileio.output.CommandOutput;
+import music.PlaylistRegistry;
+import search.SearchCache;
+import snapshot.CommandLog;
+import snapshot.SnapshotWriter;
+import snapshot.StateSnapshot;
+import user.UserDetails;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daemon that keeps the library, the users and the playlists in memory and runs the
+ * commands sent by its clients. Every line sent by a client is a command, in the same
+ * JSON format as in the input files, and every command gets one line back: the output
+ * that Main.action would write for it, without whitespace, or null when the command has
+ * no output, or an object with an error field when the line isn't a command or the
+ * command fails. The commands of all the clients change the same state, one at a time.
+ * With a data directory, every command is written to a command log before it runs and
+ * its answer is only sent once the command is on the disk, and a snapshot of the state
+ * is saved every few commands, so a restarted server only replays the commands after
+ * the last snapshot.
+ */
+public final class CommandServer implements Closeable {
+    /**
+     * TCP port used when no Unix socket path is given
+     */
+    public static final int DEFAULT_PORT = 4567;
+    /**
+     * Number of commands between two state snapshots, if not given
+     */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 10000;
+
+    private static final String STATE_FILE = "state.bin";
+    private static final String STATE_TEMP_FILE = "state.bin.tmp";
+
+    private static final byte[] NO_OUTPUT = "null\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ServerSocketChannel server;
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+    private final CommandContext context;
+    private final Map<String, UserDetails> usersDetails = new HashMap<>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final ExecutorService snapshots = Executors.newSingleThreadExecutor();
+    private CommandLog log;
+    private File dataDirectory;
+    private int snapshotInterval;
+    private long lastSnapshot;
+
+    /**
+     * @param server  the channel the clients connect to, already bound
+     * @param context the state changed by the commands
+     */
+    public CommandServer(final ServerSocketChannel server, final CommandContext context) {
+        this.server = server;
+        this.context = context;
+    }
+
+    /**
+     * Starts a server on a Unix socket (-Dserver.socket=path) or on a local TCP port
+     * (-Dserver.port=port). With -Dserver.data=directory the state is restored from the
+     * directory and saved there (-Dserver.snapshotInterval=commands between snapshots).
+     *
+     * @param args not used
+     * @throws IOException if the library can't be read or the socket can't be opened
+     */
+    public static void main(final String[] args) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        CommandContext context = new CommandContext(
+                LibraryCache.load(objectMapper, Main.getLibraryFile()),
+                new PlaylistRegistry(), new SearchCache(Main.SEARCH_CACHE_SIZE));
+
+        String socketPath = System.getProperty("server.socket");
+        ServerSocketChannel channel;
+        SocketAddress address;
+        if (socketPath != null) {
+            Files.deleteIfExists(Path.of(socketPath));
+            channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            address = UnixDomainSocketAddress.of(socketPath);
+        } else {
+            channel = ServerSocketChannel.open();
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.getInteger("server.port", DEFAULT_PORT));
+        }
+        try (CommandServer commandServer = new CommandServer(channel, context)) {
+            String dataPath = System.getProperty("server.data");
+            if (dataPath != null) {
+                File directory = new File(dataPath);
+                Files.createDirectories(directory.toPath());
+                commandServer.restore(directory, Integer.getInteger(
+                        "server.snapshotInterval", DEFAULT_SNAPSHOT_INTERVAL));
+            }
+            channel.bind(address);
+            System.err.println("Listening on " + address);
+            commandServer.serve();
+        }
+    }
+
+    /**
+     * Restores the state saved in a data directory, the last snapshot and the commands
+     * logged after it, and logs the next commands there
+     *
+     * @param directory the data directory
+     * @param interval  number of commands between two snapshots
+     * @throws IOException if the saved state can't be read or the log can't be opened
+     */
+    public synchronized void restore(final File directory, final int interval)
+            throws IOException {
+        File snapshot = new File(directory, STATE_FILE);
+        long sequence = 0;
+        if (snapshot.exists()) {
+            sequence = StateSnapshot.read(snapshot, context.getLibrary(),
+                    context.getPlaylists(), usersDetails);
+        }
+        long last = CommandLog.recover(directory, sequence, (replayed, command) -> {
+            try {
+                apply(objectMapper.readValue(command, CommandInput.class));
+            } catch (RuntimeException e) {
+                // The command failed the same way when it was first run.
+            }
+        });
+        System.err.println("Restored the snapshot of command " + sequence + " and replayed "
+                + (last - sequence) + " commands");
+        dataDirectory = directory;
+        snapshotInterval = interval;
+        lastSnapshot = sequence;
+        log = new CommandLog(directory, last);
+    }
+
+    /**
+     * Accepts clients until the server is closed, every client is served on its own thread
+     *
+     * @throws IOException if a client can't be accepted
+     */
+    public void serve() throws IOException {
+        while (true) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            connections.execute(() -> serveClient(client));
+        }
+    }
+
+    private void serveClient(final SocketChannel client) {
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     Channels.newInputStream(client), StandardCharsets.UTF_8));
+             OutputStream out = Channels.newOutputStream(client)) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                byte[] reply;
+                try {
+                    reply = execute(line);
+                } catch (IOException e) {
+                    // The log can't keep this command or any later one, so the server stops
+                    // instead of accepting commands it would lose.
+                    System.err.println("The command log failed, stopping the server: " + e);
+                    try {
+                        out.write(error("The command can't be logged: " + e.getMessage()));
+                        out.flush();
+                    } finally {
+                        // Closing the server interrupts this thread, so the client is
+                        // answered first.
+                        server.close();
+                    }
+                    return;
+                }
+                out.write(reply);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client went away, its commands were already applied.
+        }
+    }
+
+    /**
+     * Runs a command sent by a client, and waits until it is logged if there is a log
+     *
+     * @param line the command, as a JSON object
+     * @return the line sent back to the client
+     * @throws IOException if the command can't be logged
+     */
+    byte[] execute(final String line) throws IOException {
+        Reply reply = run(line);
+        // The answer is sent only once the command can be recovered, other clients'
+        // commands run meanwhile and are forced to the disk together with this one.
+        if (reply.sequence > 0) {
+            log.awaitDurable(reply.sequence);
+        }
+        return reply.line;
+    }
+
+    private synchronized Reply run(final String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        // A longer command couldn't be read back from the log, so it is never run.
+        if (bytes.length > CommandLog.MAX_COMMAND_SIZE) {
+            return new Reply(error("A command can't be longer than "
+                    + CommandLog.MAX_COMMAND_SIZE + " bytes"), 0);
+        }
+        CommandInput command;
+        try {
+            command = objectMapper.readValue(bytes, CommandInput.class);
+        } catch (JsonProcessingException e) {
+            return new Reply(error(e.getOriginalMessage()), 0);
+        }
+        // Every command changes the state, at least the last command of its user.
+        long sequence = 0;
+        if (log != null) {
+            sequence = log.append(bytes);
+        }
+        CommandOutput output = null;
+        byte[] failure = null;
+        try {
+            output = apply(command);
+        } catch (RuntimeException e) {
+            // The command stays logged, it fails the same way when it is replayed.
+            failure = error(e.toString());
+        }
+        if (log != null && sequence - lastSnapshot >= snapshotInterval) {
+            try {
+                takeSnapshot(sequence);
+            } catch (IOException e) {
+                // The log still has every command after the previous snapshot.
+                System.err.println("Can't save the snapshot of command " + sequence + ": " + e);
+            }
+        }
+        if (failure != null) {
+            return new Reply(failure, sequence);
+        }
+        if (output == null) {
+            return new Reply(NO_OUTPUT, sequence);
+        }
+        // The output is written while the state can't change, since it may read it.
+        buffer.reset();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer)) {
+            output.writeTo(generator);
+        }
+        buffer.write('\n');
+        return new Reply(buffer.toByteArray(), sequence);
+    }
+
+    private CommandOutput apply(final CommandInput command) {
+        UserDetails user = usersDetails.computeIfAbsent(command.getUsername(), UserDetails::new);
+        CommandOutput output = CommandDispatcher.dispatch(command, user, context);
+        user.setLastCommand(command.getCommand());
+        return output;
+    }
+
+    /**
+     * Encodes the state after a command and saves it in the background. The log starts
+     * a new segment with the next command, and the older segments are deleted once the
+     * snapshot replaced the previous one.
+     *
+     * @param sequence sequence number of the last command applied
+     * @throws IOException if the state can't be encoded
+     */
+    private void takeSnapshot(final long sequence) throws IOException {
+        SnapshotWriter snapshot = StateSnapshot.capture(sequence, context.getLibrary(),
+                context.getPlaylists(), usersDetails);
+        log.startSegment();
+        lastSnapshot = sequence;
+        snapshots.execute(() -> {
+            try {
+                File temp = new File(dataDirectory, STATE_TEMP_FILE);
+                snapshot.writeTo(temp);
+                Files.move(temp.toPath(), new File(dataDirectory, STATE_FILE).toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                CommandLog.syncDirectory(dataDirectory);
+                log.deleteBefore(sequence + 1);
+            } catch (IOException e) {
+                // The log still has every command after the previous snapshot.
+                System.err.println("Can't save the snapshot of command " + sequence + ": " + e);
+            }
+        });
+    }
+
+    /**
+     * The line sent back for a command and the sequence number it was logged with,
+     * 0 if it was not logged
+     */
+    private static final class Reply {
+        private final byte[] line;
+        private final long sequence;
+
+        private Reply(final byte[] line, final long sequence) {
+            this.line = line;
+            this.sequence = sequence;
+        }
+    }
+
+    private byte[] error(final String message) {
+        return (objectMapper.createObjectNode().put("error", message).toString() + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stops accepting clients, disconnects the connected ones and closes the log once the
+     * last snapshot is saved
+     *
+     * @throws IOException if the socket or the log can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        connections.shutdownNow();
+        snapshots.shutdown();
+        try {
+            snapshots.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (log != null) {
+            log.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package music;
+
+import java.util.Random;
+
+/**
+ * Order in which the songs of a playlist are played: the playlist index of the song at
+ * every position and the inverse permutation, the position of every song, so both
+ * lookups take constant time. Orders never change once created.
+ */
+final class PlayOrder {
+
+    private final int[] songIndexes;
+    private final int[] positions;
+    private final boolean original;
+
+    private PlayOrder(final int[] songIndexes, final boolean original) {
+        this.songIndexes = songIndexes;
+        this.original = original;
+        positions = new int[songIndexes.length];
+        for (int i = 0; i < songIndexes.length; i++) {
+            positions[songIndexes[i]] = i;
+        }
+    }
+
+    /**
+     * @param size number of songs
+     * @return the songs in playlist order
+     */
+    static PlayOrder original(final int size) {
+        return new PlayOrder(identity(size), true);
+    }
+
+    /**
+     * @param songIndexes the playlist index of the song at every position, of an order
+     *                    that was shuffled before being saved in a snapshot
+     * @return the shuffled order
+     */
+    static PlayOrder shuffled(final int[] songIndexes) {
+        return new PlayOrder(songIndexes, false);
+    }
+
+    /**
+     * Shuffles the songs exactly like Collections.shuffle(list, new Random(seed)) shuffles
+     * the list of song indexes in this order, without boxing them.
+     *
+     * @param seed seed of the shuffle
+     * @return the shuffled songs
+     */
+    PlayOrder shuffle(final long seed) {
+        int[] indexes = songIndexes.clone();
+        Random random = new Random(seed);
+        for (int i = indexes.length; i > 1; i--) {
+            int j = random.nextInt(i);
+            int swapped = indexes[i - 1];
+            indexes[i - 1] = indexes[j];
+            indexes[j] = swapped;
+        }
+        return new PlayOrder(indexes, false);
+    }
+
+    /**
+     * @return true if the songs are in playlist order
+     */
+    boolean isOriginal() {
+        return original;
+    }
+
+    int size() {
+        return songIndexes.length;
+    }
+
+    /**
+     * @return the playlist index of the song at every position
+     */
+    int[] getSongIndexes() {
+        return songIndexes.clone();
+    }
+
+    /**
+     * @param position position in play order
+     * @return index in the playlist of the song played at the given position
+     */
+    int getSongIndex(final int position) {
+        return songIndexes[position];
+    }
+
+    /**
+     * @param songIndex index of a song in the playlist
+     * @return position in play order of the song
+     */
+    int getPosition(final int songIndex) {
+        return positions[songIndex];
+    }
+
+    private static int[] identity(final int size) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+}
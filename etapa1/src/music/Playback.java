@@ -0,0 +1,134 @@
+package music;
+
+import fileio.Stats;
+import fileio.extended.PodcastInputExtended;
+import fileio.extended.SongInputExtended;
+import snapshot.SnapshotReader;
+import snapshot.SnapshotWriter;
+import user.UserDetails;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The playback logic of one type of source. The player keeps the state common to all
+ * the sources (played time, repeat mode, paused...) and passes itself to its playback,
+ * which keeps the source and the state specific to it.
+ */
+interface Playback {
+    /**
+     * @return the type of the loaded source
+     */
+    SourceType getType();
+
+    /**
+     * @return the loaded song, or null if the source is not a song
+     */
+    default SongInputExtended getSong() {
+        return null;
+    }
+
+    /**
+     * @return the loaded playlist, or null if the source is not a playlist
+     */
+    default Playlist getPlaylist() {
+        return null;
+    }
+
+    /**
+     * @return the loaded podcast, or null if the source is not a podcast
+     */
+    default PodcastInputExtended getPodcast() {
+        return null;
+    }
+
+    /**
+     * @return the total duration of the source
+     */
+    int getDuration();
+
+    /**
+     * Called when the player starts or resumes playing
+     */
+    void play(Player player, UserDetails user);
+
+    /**
+     * Called when the player is paused, after the played time was updated
+     */
+    void pause(Player player, int timestamp, UserDetails user);
+
+    /**
+     * Called after the repeat mode of the player changed
+     */
+    void repeatChanged(Player player, int timestamp);
+
+    /**
+     * @return the status of the player at the given time
+     */
+    Stats getStatus(Player player, int timestamp, int currentPlayedTime);
+
+    /**
+     * @return the result of the next command
+     */
+    String next(Player player, int timestamp, int currentPlayedTime);
+
+    /**
+     * @return the result of the prev command
+     */
+    String prev(Player player, int timestamp, int currentPlayedTime);
+
+    /**
+     * @return the result of the shuffle command, the sources that are not playlists
+     * can't be shuffled
+     */
+    default String shuffle(Player player, int seed, int timestamp) {
+        return "The loaded source is not a playlist.";
+    }
+
+    /**
+     * @return the result of the forward command, the sources that are not podcasts
+     * can't be skipped forward
+     */
+    default String forward(Player player, int timestamp) {
+        return "The loaded source is not a podcast.";
+    }
+
+    /**
+     * @return the result of the backward command, the sources that are not podcasts
+     * can't be rewound
+     */
+    default String backward(Player player, int timestamp) {
+        return "The loaded source is not a podcast.";
+    }
+
+    /**
+     * @return the name of the track playing at the given time, or an empty string
+     */
+    String getNextName(Player player, int timestamp, int currentPlayedTime);
+
+    /**
+     * @return the song playing at the given time, or null if the source has no songs
+     */
+    SongInputExtended getPlayingSong(Player player, int timestamp);
+
+    /**
+     * @return the song repeated by the repeat current song mode, or null if there is none
+     */
+    default SongInputExtended getRepeatedSong() {
+        return null;
+    }
+
+    /**
+     * Saves the state of the playback that is not kept by the player
+     */
+    default void writeState(SnapshotWriter writer) throws IOException {
+    }
+
+    /**
+     * Restores the state saved by writeState
+     *
+     * @param songs the library songs, by ordinal
+     */
+    default void readState(SnapshotReader reader, List<SongInputExtended> songs) {
+    }
+}
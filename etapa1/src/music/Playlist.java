@@ -1,6 +1,7 @@
 package music;
 
 import fileio.extended.SongInputExtended;
+import search.Leaderboard;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +13,11 @@ public final class Playlist {
     private List<SongInputExtended> songs;
     private int followers;
     private boolean privatePlaylist;
+    private int creationIndex;
+    private int duration;
+    private int version;
+    private Leaderboard leaderboard;
+    private TimelineCache timelines;
 
     public Playlist(final String name, final String owner) {
         this.name = name;
@@ -44,30 +50,42 @@ public final class Playlist {
         return songs;
     }
 
+    /**
+     * Replaces the songs of the playlist
+     * @param songs the new songs
+     */
     public void setSongs(final List<SongInputExtended> songs) {
         this.songs = songs;
+        duration = 0;
+        for (SongInputExtended song : songs) {
+            duration += song.getDuration();
+        }
+        version++;
     }
 
     /**
-     * Method that changes the visibility from private to public and vice-versa
+     * Method that changes the visibility from private to public and vice-versa,
+     * called by the registry so it can update its indexes
      */
-    public void changeVisibility() {
+    void changeVisibility() {
         privatePlaylist = !privatePlaylist;
     }
 
     /**
-     * Calculates the entire playlist duration
+     * Returns the entire playlist duration, kept up to date when songs are added or removed
      * @return int total duration
      */
     public int getDuration() {
-        int duration = 0;
-        for (SongInputExtended song : songs) {
-            duration += song.getDuration();
-        }
-
         return duration;
     }
 
+    /**
+     * @return counter increased every time the songs of the playlist change
+     */
+    public int getVersion() {
+        return version;
+    }
+
     /**
      * Checks if the current playlist contains or not the given song
      * @param songName Given name song
@@ -87,7 +105,10 @@ public final class Playlist {
      * @param song Given song
      */
     public void removeSong(final SongInputExtended song) {
-        songs.remove(song);
+        if (songs.remove(song)) {
+            duration -= song.getDuration();
+            version++;
+        }
     }
 
     /**
@@ -96,6 +117,8 @@ public final class Playlist {
      */
     public void addSong(final SongInputExtended song) {
         songs.add(song);
+        duration += song.getDuration();
+        version++;
     }
 
     /**
@@ -103,6 +126,9 @@ public final class Playlist {
      */
     public void addFollower() {
         followers++;
+        if (leaderboard != null) {
+            leaderboard.update(creationIndex, followers);
+        }
     }
 
     /**
@@ -110,9 +136,39 @@ public final class Playlist {
      */
     public void removeFollower() {
         followers--;
+        if (leaderboard != null) {
+            leaderboard.update(creationIndex, followers);
+        }
     }
 
     public Integer getFollowers() {
         return followers;
     }
+
+    public int getCreationIndex() {
+        return creationIndex;
+    }
+
+    void setCreationIndex(final int creationIndex) {
+        this.creationIndex = creationIndex;
+    }
+
+    void setLeaderboard(final Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    /**
+     * @return the timelines cache of the registry, or one of its own for a playlist
+     * that is not in a registry
+     */
+    TimelineCache getTimelines() {
+        if (timelines == null) {
+            timelines = new TimelineCache();
+        }
+        return timelines;
+    }
+
+    void setTimelines(final TimelineCache timelines) {
+        this.timelines = timelines;
+    }
 }
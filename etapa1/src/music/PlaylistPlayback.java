@@ -0,0 +1,467 @@
+package music;
+
+import fileio.Stats;
+import fileio.extended.SongInputExtended;
+import snapshot.SnapshotReader;
+import snapshot.SnapshotWriter;
+import user.UserDetails;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Playback of a playlist, in its original or shuffled order, that can also repeat
+ * a single song of the playlist
+ */
+final class PlaylistPlayback implements Playback {
+
+    private final Playlist playlist;
+
+    private PlaylistTimeline timeline;
+    private int shuffleSeed;
+
+    private SongInputExtended selectedToRepeatFromPlaylist;
+    private int selectedToRepeatIndex = -1;
+    private int playedTimeFromRepeatedPlaylist;
+
+    private int timestampStartedRepeat;
+
+    PlaylistPlayback(final Playlist playlist) {
+        this.playlist = playlist;
+        timeline = playlist.getTimelines().original(playlist);
+    }
+
+    @Override
+    public SourceType getType() {
+        return SourceType.PLAYLIST;
+    }
+
+    @Override
+    public Playlist getPlaylist() {
+        return playlist;
+    }
+
+    @Override
+    public int getDuration() {
+        return playlist.getDuration();
+    }
+
+    @Override
+    public SongInputExtended getRepeatedSong() {
+        return selectedToRepeatFromPlaylist;
+    }
+
+    @Override
+    public void writeState(final SnapshotWriter writer) throws IOException {
+        // An outdated timeline is rebuilt when it is next used, with the shuffle mode of
+        // that moment, so it is saved as outdated instead of being rebuilt now.
+        writer.writeInt(timeline.getVersion() != playlist.getVersion() ? 1 : 0);
+        writer.writeInt(timeline.getOrder().isOriginal() ? 1 : 0);
+        writer.writeInts(timeline.getOrder().getSongIndexes());
+        writer.writeInt(shuffleSeed);
+        writer.writeInt(selectedToRepeatFromPlaylist == null ? -1
+                : selectedToRepeatFromPlaylist.getOrdinal());
+        writer.writeInt(selectedToRepeatIndex);
+        writer.writeInt(playedTimeFromRepeatedPlaylist);
+        writer.writeInt(timestampStartedRepeat);
+    }
+
+    @Override
+    public void readState(final SnapshotReader reader, final List<SongInputExtended> songs) {
+        boolean outdated = reader.readInt() != 0;
+        boolean original = reader.readInt() != 0;
+        int[] songIndexes = reader.readInts();
+        if (outdated) {
+            timeline = PlaylistTimeline.outdated(playlist);
+        } else if (original) {
+            timeline = playlist.getTimelines().original(playlist);
+        } else {
+            timeline = new PlaylistTimeline(playlist, PlayOrder.shuffled(songIndexes));
+        }
+        shuffleSeed = reader.readInt();
+        int repeatedSong = reader.readInt();
+        selectedToRepeatFromPlaylist = repeatedSong < 0 ? null : songs.get(repeatedSong);
+        selectedToRepeatIndex = reader.readInt();
+        playedTimeFromRepeatedPlaylist = reader.readInt();
+        timestampStartedRepeat = reader.readInt();
+    }
+
+    /**
+     * Returns the timeline of the playlist in the current play order. If songs were
+     * added to or removed from the playlist while playing, the play order is rebuilt
+     * over the current songs (shuffled again with the same seed if shuffle is on).
+     *
+     * @param player the player
+     * @return the playlist timeline
+     */
+    private PlaylistTimeline getTimeline(final Player player) {
+        if (timeline.getVersion() != playlist.getVersion()) {
+            TimelineCache timelines = playlist.getTimelines();
+            timeline = player.isShuffle() ? timelines.shuffled(playlist, shuffleSeed)
+                    : timelines.original(playlist);
+            // The repeated song may have moved or may have been removed.
+            selectedToRepeatIndex = -1;
+            for (int i = 0; i < playlist.getSongs().size(); i++) {
+                if (playlist.getSongs().get(i) == selectedToRepeatFromPlaylist) {
+                    selectedToRepeatIndex = i;
+                    break;
+                }
+            }
+        }
+        return timeline;
+    }
+
+    /**
+     * Returns the position in play order of the current playing song
+     *
+     * @param player    the player
+     * @param timestamp Current timestamp
+     * @return the position or the number of songs if no song is playing
+     */
+    private int getPlayingPosition(final Player player, final int timestamp) {
+        // Adjust the played time to fit within the total duration of the playlist.
+        int currentPlayedTime = player.getCurrentPlayedTime(timestamp) % playlist.getDuration();
+
+        // The current song is the first one that ends after the played time.
+        return getTimeline(player).find(currentPlayedTime);
+    }
+
+    @Override
+    public SongInputExtended getPlayingSong(final Player player, final int timestamp) {
+        int position = getPlayingPosition(player, timestamp);
+        PlaylistTimeline songs = getTimeline(player);
+
+        // Return null if no song matches the criteria (should not happen in normal operation).
+        return position < songs.size() ? songs.getSong(position) : null;
+    }
+
+    @Override
+    public void play(final Player player, final UserDetails user) {
+    }
+
+    @Override
+    public void pause(final Player player, final int timestamp, final UserDetails user) {
+        // Check if the playlist has finished playing.
+        if (playlist.getDuration() <= player.getPlayedTime() && playlist.getDuration() != 0) {
+            if (player.getRepeat() == 1) {
+                // For repeat all, loop the playlist.
+                player.setPlayedTime(player.getPlayedTime() % playlist.getDuration());
+            } else if (player.getRepeat() == 2) {
+                // For repeat current song, calculate the played time from repeated song.
+                playedTimeFromRepeatedPlaylist = timestamp - timestampStartedRepeat;
+                if (!playlist.getSongs().isEmpty()) {
+                    if (playedTimeFromRepeatedPlaylist
+                            >= selectedToRepeatFromPlaylist.getDuration()) {
+                        playedTimeFromRepeatedPlaylist =
+                                playedTimeFromRepeatedPlaylist
+                                        % selectedToRepeatFromPlaylist.getDuration();
+                    }
+                }
+            } else {
+                // If no repeat, set the playlist as finished.
+                player.setFinished();
+            }
+        }
+        if (player.getRepeat() == 2) {
+            // Update played time for repeating current song.
+            playedTimeFromRepeatedPlaylist = timestamp - timestampStartedRepeat;
+            if (playedTimeFromRepeatedPlaylist
+                    >= selectedToRepeatFromPlaylist.getDuration()) {
+                playedTimeFromRepeatedPlaylist =
+                        playedTimeFromRepeatedPlaylist
+                                % selectedToRepeatFromPlaylist.getDuration();
+            }
+        }
+    }
+
+    @Override
+    public void repeatChanged(final Player player, final int timestamp) {
+        // If repeat mode is set to repeat the current song (2),
+        // set up for repeating the current song.
+        if (player.getRepeat() == 2) {
+            // Identify the current song to repeat in the playlist.
+            int position = getPlayingPosition(player, timestamp);
+            PlaylistTimeline songs = getTimeline(player);
+            boolean found = position < songs.size();
+            selectedToRepeatFromPlaylist = found ? songs.getSong(position) : null;
+            selectedToRepeatIndex = found ? songs.getOrder().getSongIndex(position) : -1;
+
+            // The total duration of songs played in the playlist up to the current song.
+            int duration = songs.getStart(position);
+
+            // Determine the played time for the repeated song in the playlist.
+            playedTimeFromRepeatedPlaylist =
+                    (player.getCurrentPlayedTime(timestamp) % playlist.getDuration()) - duration;
+            timestampStartedRepeat = timestamp - playedTimeFromRepeatedPlaylist;
+        }
+
+        // If repeat mode is reset to no repeat (0),
+        // adjust the timestamp started for the playlist.
+        if (player.getRepeat() == 0) {
+            PlaylistTimeline songs = getTimeline(player);
+            int duration = songs.getStart(songs.positionOf(selectedToRepeatIndex));
+            player.setTimestampStarted(timestamp - (duration
+                    + (timestamp - timestampStartedRepeat)
+                    % selectedToRepeatFromPlaylist.getDuration()));
+        }
+    }
+
+    @Override
+    public Stats getStatus(final Player player, final int timestamp,
+                           final int currentPlayedTime) {
+        int playedTime = currentPlayedTime;
+        // Handle the scenario when the repeat mode is set to repeat the current song (2).
+        if (player.getRepeat() == 2) {
+            // Determine the current played time based on whether the player is paused.
+            if (player.isPaused()) {
+                playedTime = playedTimeFromRepeatedPlaylist;
+            } else {
+                playedTime = (timestamp - timestampStartedRepeat);
+            }
+            if (playedTime > selectedToRepeatFromPlaylist.getDuration()) {
+                playedTime = playedTime % selectedToRepeatFromPlaylist.getDuration();
+            }
+            // Return the status of the currently repeating song.
+            return new Stats(
+                    selectedToRepeatFromPlaylist.getName(),
+                    selectedToRepeatFromPlaylist.getDuration() - playedTime,
+                    player.getRepeatMessage(),
+                    player.isShuffle(),
+                    player.isPaused()
+            );
+        }
+        // Check if the playlist has finished playing
+        // (considering the playlist's total duration).
+        if (playlist.getDuration() <= playedTime && playlist.getDuration() != 0) {
+            if (player.getRepeat() == 1) {
+                // For repeat all mode, loop back to the start of the playlist.
+                playedTime = playedTime % playlist.getDuration();
+            } else {
+                // If no repeat mode, mark the playlist as finished.
+                player.setFinished();
+                return player.getEmptyStatus();
+            }
+        }
+
+        // Calculate the position within the playlist.
+        PlaylistTimeline songs = getTimeline(player);
+        int position = songs.find(playedTime);
+        if (position < songs.size()) {
+            SongInputExtended song = songs.getSong(position);
+            return new Stats(
+                    song.getName(),
+                    song.getDuration() - (playedTime - songs.getStart(position)),
+                    player.getRepeatMessage(),
+                    player.isShuffle(),
+                    player.isPaused()
+            );
+        }
+        // If at the end of the playlist and no duration left, return finished status.
+        if (songs.size() > 0 && playedTime == songs.getStart(songs.size())) {
+            return new Stats("", 0, player.getRepeatMessage(), player.isShuffle(), true);
+        }
+        return player.getEmptyStatus();
+    }
+
+    /**
+     * Verifies if at the specified time the player has finished the playlist
+     *
+     * @param player    the player
+     * @param timestamp timestamp
+     */
+    private void checkIfFinished(final Player player, final int timestamp) {
+        if (player.getRepeat() == 0) {
+            // Calculate the played time and check if it's equal to
+            // or exceeds the playlist's duration.
+            if (player.getCurrentPlayedTime(timestamp) - playlist.getDuration() >= 0) {
+                // If it does, mark the playback as finished.
+                player.setFinished();
+            }
+        } else if (player.getRepeat() == 1) {
+            // Calculate the played time for twice the duration (to account for the repeat once).
+            if (player.getCurrentPlayedTime(timestamp) - 2 * playlist.getDuration() >= 0) {
+                // If the played time exceeds twice the duration, mark the playback as finished.
+                player.setFinished();
+            }
+        }
+    }
+
+    /**
+     * Shuffles the playlist or puts it back in its original order
+     *
+     * @param player    the player
+     * @param seed      Given seed
+     * @param timestamp Current timestamp
+     * @return result to this command
+     */
+    @Override
+    public String shuffle(final Player player, final int seed, final int timestamp) {
+        // Check if the playlist has finished playing.
+        checkIfFinished(player, timestamp);
+        if (player.isFinished()) {
+            // If the playlist has finished, return an error message.
+            return "Please load a source before using the shuffle function.";
+        }
+
+        // Calculate the current played time up to this point.
+        int currentPlayedTime = player.getCurrentPlayedTime(timestamp);
+
+        // Get the currently playing song from the playlist.
+        int position = getPlayingPosition(player, timestamp);
+        PlaylistTimeline songs = getTimeline(player);
+        int songIndex = position < songs.size() ? songs.getOrder().getSongIndex(position) : -1;
+
+        // Deduct the duration of each song played before the current song.
+        currentPlayedTime -= songs.getStart(position);
+
+        // If shuffle is already activated, sort the playlist back to its original order.
+        // Otherwise, shuffle the playlist using the provided seed.
+        // The timelines shuffled from the original order are shared by all the players.
+        if (player.isShuffle()) {
+            timeline = playlist.getTimelines().original(playlist);
+        } else if (songs.getOrder().isOriginal()) {
+            shuffleSeed = seed;
+            timeline = playlist.getTimelines().shuffled(playlist, seed);
+        } else {
+            shuffleSeed = seed;
+            timeline = new PlaylistTimeline(playlist, songs.getOrder().shuffle(seed));
+        }
+
+        // Calculate the total duration of songs before the current song after shuffling.
+        int duration = timeline.getStart(timeline.positionOf(songIndex));
+
+        // Adjust the timestamp when the current song started playing.
+        player.setTimestampStarted(timestamp - (duration + currentPlayedTime));
+
+        // Reset the played time if not paused; otherwise, update it.
+        if (!player.isPaused()) {
+            player.setPlayedTime(0);
+        } else {
+            player.setPlayedTime(duration + currentPlayedTime);
+        }
+
+        // Prepare a message to indicate the status of the shuffle function.
+        String message;
+        if (player.isShuffle()) {
+            message = "Shuffle function deactivated successfully.";
+        } else {
+            message = "Shuffle function activated successfully.";
+        }
+
+        // Toggle the shuffle status.
+        player.setShuffle(!player.isShuffle());
+
+        // Return the status message.
+        return message;
+    }
+
+    @Override
+    public String next(final Player player, final int timestamp, final int currentPlayedTime) {
+        // Find the position of the current song and the time played from it.
+        PlaylistTimeline songs = getTimeline(player);
+        int currentPosition = songs.find(currentPlayedTime);
+        int playedTime = currentPlayedTime - songs.getStart(currentPosition);
+        if (currentPosition == songs.size()) {
+            currentPosition = -1;
+        }
+        // Get the duration of the current song in the playlist.
+        int duration = Objects.requireNonNull(getPlayingSong(player, timestamp)).getDuration();
+        // Update the timestamp for when the song started.
+        player.setTimestampStarted(player.getTimestampStarted() - (duration - playedTime));
+        // If the player is paused, update the played time.
+        if (player.isPaused()) {
+            player.setPlayedTime(player.getPlayedTime() + duration - playedTime);
+        }
+        // In repeat mode 2 (repeat current song), reset the repeat timestamp.
+        if (player.getRepeat() == 2) {
+            timestampStartedRepeat = timestamp;
+        }
+        // Return the name of the next song.
+        return getSongInputExtendedName(player, currentPosition, timestamp);
+    }
+
+    private String getSongInputExtendedName(final Player player, final int currentPosition,
+                                            final int timestamp) {
+        // Check if the repeat mode is set to repeat the current song (2).
+        if (player.getRepeat() == 2) {
+            // Return a message indicating the current track that will be repeated.
+            return "Skipped to next track successfully. The current track is "
+                    + selectedToRepeatFromPlaylist.getName() + ".";
+        }
+
+        // Check if the current song index is within the bounds of the playlist.
+        if (currentPosition < getTimeline(player).size() - 1) {
+            // Return a message with the name of the next song in the playlist.
+            return "Skipped to next track successfully. The current track is "
+                    + Objects.requireNonNull(getPlayingSong(player, timestamp)).getName() + ".";
+        } else {
+            // If the playlist has reached its end and repeat mode is 'repeat all' (1).
+            if (player.getRepeat() == 1) {
+                // Return a message indicating the first track in the playlist is now playing.
+                return "Skipped to next track successfully. The current track is "
+                        + getTimeline(player).getSong(0).getName() + ".";
+            } else {
+                // If the playlist has reached its end and there is no repeat, mark as finished.
+                player.setFinished();
+                // Inform the user to load a source before skipping to the next track.
+                return "Please load a source before skipping to the next track.";
+            }
+        }
+    }
+
+    @Override
+    public String prev(final Player player, final int timestamp, final int currentPlayedTime) {
+        // Find the index of the previous song to play.
+        int playedTime = currentPlayedTime % playlist.getDuration();
+        PlaylistTimeline songs = getTimeline(player);
+        playedTime -= songs.getStart(songs.findInclusive(playedTime));
+        // Adjust the timestamp and played time if paused.
+        if (player.isPaused()) {
+            player.setTimestampStarted(timestamp - (player.getPlayedTime() - playedTime));
+            player.setPlayedTime(player.getPlayedTime() - playedTime);
+        } else {
+            player.setTimestampStarted(player.getTimestampStarted() + playedTime);
+        }
+        // Handle repeat mode for playlists.
+        if (player.getRepeat() == 2) {
+            int duration = songs.getStart(songs.positionOf(selectedToRepeatIndex));
+            player.setTimestampStarted(timestamp - duration);
+            timestampStartedRepeat = timestamp;
+            if (player.isPaused()) {
+                playedTimeFromRepeatedPlaylist = 0;
+            }
+        }
+        // Return a message with the name of the next song in the playlist.
+        return "Returned to previous track successfully. The current track is "
+                + Objects.requireNonNull(getPlayingSong(player, timestamp)).getName()
+                + ".";
+    }
+
+    @Override
+    public String getNextName(final Player player, final int timestamp,
+                              final int currentPlayedTime) {
+        int playedTime = currentPlayedTime;
+        // Check if the repeat mode is set to repeat the current song.
+        if (player.getRepeat() == 2) {
+            return selectedToRepeatFromPlaylist.getName();
+        }
+        // Check if the playlist has finished playing.
+        if (playlist.getDuration() <= playedTime && playlist.getDuration() != 0) {
+            // Handle repeat all mode.
+            if (player.getRepeat() == 1) {
+                playedTime = playedTime % playlist.getDuration();
+            } else {
+                player.setFinished();
+                return "";
+            }
+        }
+        // The next song is the first one that ends at or after the played time.
+        PlaylistTimeline songs = getTimeline(player);
+        int position = songs.findInclusive(playedTime);
+        if (position < songs.size()) {
+            return songs.getSong(position).getName();
+        }
+        return "";
+    }
+}
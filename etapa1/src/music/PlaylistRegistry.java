@@ -0,0 +1,152 @@
+package music;
+
+import search.Leaderboard;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps all the created playlists in creation order, together with the indexes
+ * used by the playlist search: the playlists of every owner, the public playlists
+ * and the playlists sorted by name. The indexes are updated when a playlist is
+ * created or its visibility is changed. It also ranks the playlists by followers and
+ * caches the timelines played from its playlists.
+ */
+public final class PlaylistRegistry {
+
+    private static final int TOP_PLAYLISTS_SIZE = 5;
+
+    private final List<Playlist> playlists = new ArrayList<>();
+    private final Map<String, List<Playlist>> ownerPlaylists = new HashMap<>();
+    private final BitSet publicPlaylists = new BitSet();
+    private final TreeMap<String, List<Playlist>> names = new TreeMap<>();
+    private final Leaderboard followers =
+            new Leaderboard(i -> playlists.get(i).getName(), TOP_PLAYLISTS_SIZE);
+    private final TimelineCache timelines = new TimelineCache();
+    private long version;
+
+    /**
+     * Adds a new playlist to the registry
+     *
+     * @param playlist the created playlist
+     */
+    public void add(final Playlist playlist) {
+        playlist.setCreationIndex(playlists.size());
+        playlists.add(playlist);
+        ownerPlaylists.computeIfAbsent(playlist.getOwner(), k -> new ArrayList<>()).add(playlist);
+        names.computeIfAbsent(playlist.getName(), k -> new ArrayList<>()).add(playlist);
+        publicPlaylists.set(playlist.getCreationIndex(), !playlist.isPrivatePlaylist());
+        followers.add(playlist.getCreationIndex(), playlist.getFollowers());
+        playlist.setLeaderboard(followers);
+        playlist.setTimelines(timelines);
+        version++;
+    }
+
+    /**
+     * Changes the visibility of a playlist from private to public and vice-versa
+     *
+     * @param playlist the playlist
+     */
+    public void changeVisibility(final Playlist playlist) {
+        playlist.changeVisibility();
+        publicPlaylists.set(playlist.getCreationIndex(), !playlist.isPrivatePlaylist());
+        version++;
+    }
+
+    /**
+     * @return all the playlists, in creation order
+     */
+    public List<Playlist> getPlaylists() {
+        return Collections.unmodifiableList(playlists);
+    }
+
+    /**
+     * @param owner the name of the user
+     * @return the playlists of the user, in creation order
+     */
+    public List<Playlist> getOwnerPlaylists(final String owner) {
+        List<Playlist> owned = ownerPlaylists.get(owner);
+        return owned == null ? Collections.emptyList() : Collections.unmodifiableList(owned);
+    }
+
+    /**
+     * @return ranking of the playlists by followers, updated in O(log P) on every
+     * follow/unfollow
+     */
+    public Leaderboard getFollowersLeaderboard() {
+        return followers;
+    }
+
+    /**
+     * @return counter increased every time the search results may change
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Searches the playlists a user can see (public ones and their own)
+     *
+     * @param username the user that searches
+     * @param name     prefix of the playlist name or null
+     * @param owner    owner of the playlist or null
+     * @param limit    maximum number of results
+     * @return the first matching playlists, in creation order
+     */
+    public List<Playlist> search(final String username, final String name,
+                                 final String owner, final int limit) {
+        List<Playlist> results = new ArrayList<>();
+        if (name == null && owner == null) {
+            return results;
+        }
+
+        List<Playlist> candidates;
+        if (owner != null) {
+            // The owner's playlists are usually the fewest, and already in creation order.
+            candidates = getOwnerPlaylists(owner);
+        } else {
+            candidates = findByName(name, limit);
+        }
+
+        for (Playlist playlist : candidates) {
+            if (results.size() == limit) {
+                break;
+            }
+            boolean visible = publicPlaylists.get(playlist.getCreationIndex())
+                    || playlist.getOwner().equals(username);
+            if (visible && (name == null || playlist.getName().startsWith(name))) {
+                results.add(playlist);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the playlists whose name starts with the prefix in creation order, or all
+     * the playlists when the matches are dense enough to find the first ones by a scan
+     */
+    private List<Playlist> findByName(final String name, final int limit) {
+        // The names starting with the prefix are contiguous in the sorted names. When few
+        // playlists match it's cheaper to sort them, otherwise the matches are dense enough
+        // for a creation order scan to find the first ones quickly.
+        List<Playlist> candidates = new ArrayList<>();
+        long maxSorted = (long) playlists.size() * limit;
+        for (Map.Entry<String, List<Playlist>> entry : names.tailMap(name, true).entrySet()) {
+            if (!entry.getKey().startsWith(name)) {
+                break;
+            }
+            candidates.addAll(entry.getValue());
+            if ((long) candidates.size() * candidates.size() > maxSorted) {
+                return playlists;
+            }
+        }
+        candidates.sort(Comparator.comparingInt(Playlist::getCreationIndex));
+        return candidates;
+    }
+}
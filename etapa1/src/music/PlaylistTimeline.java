@@ -0,0 +1,107 @@
+package music;
+
+import fileio.extended.SongInputExtended;
+
+/**
+ * The songs of a playlist in play order (original or shuffled), together with the
+ * time every one of them starts at, so the song playing at some moment is found with
+ * a binary search. It is built for one version of the playlist and one play order.
+ */
+final class PlaylistTimeline {
+
+    private final int version;
+    private final PlayOrder order;
+    private final SongInputExtended[] songs;
+    // starts[i] is the sum of the durations before position i, starts[size] is the total.
+    private final int[] starts;
+
+    PlaylistTimeline(final Playlist playlist, final PlayOrder order) {
+        version = playlist.getVersion();
+        this.order = order;
+        songs = new SongInputExtended[order.size()];
+        starts = new int[order.size() + 1];
+        for (int i = 0; i < songs.length; i++) {
+            songs[i] = playlist.getSongs().get(order.getSongIndex(i));
+            starts[i + 1] = starts[i] + songs[i].getDuration();
+        }
+    }
+
+    private PlaylistTimeline(final int version) {
+        this.version = version;
+        order = PlayOrder.original(0);
+        songs = new SongInputExtended[0];
+        starts = new int[1];
+    }
+
+    /**
+     * @param playlist the playlist
+     * @return an empty timeline built for an older version of the playlist, so it is
+     * rebuilt over the current songs the first time it is used
+     */
+    static PlaylistTimeline outdated(final Playlist playlist) {
+        return new PlaylistTimeline(playlist.getVersion() - 1);
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    PlayOrder getOrder() {
+        return order;
+    }
+
+    int size() {
+        return songs.length;
+    }
+
+    SongInputExtended getSong(final int position) {
+        return songs[position];
+    }
+
+    /**
+     * @param position position in play order, or size for the end of the playlist
+     * @return the time the song at the given position starts at
+     */
+    int getStart(final int position) {
+        return starts[position];
+    }
+
+    /**
+     * @param songIndex index of a song in the playlist, or -1 for a missing song
+     * @return position of the song in play order, or size for a missing song
+     */
+    int positionOf(final int songIndex) {
+        return songIndex < 0 ? songs.length : order.getPosition(songIndex);
+    }
+
+    /**
+     * @param time time from the start of the playlist
+     * @return first position of a song that ends after the given time, or size if none
+     */
+    int find(final int time) {
+        return firstEnd(time, false);
+    }
+
+    /**
+     * @param time time from the start of the playlist
+     * @return first position of a song that ends at or after the given time, or size if none
+     */
+    int findInclusive(final int time) {
+        return firstEnd(time, true);
+    }
+
+    private int firstEnd(final int time, final boolean inclusive) {
+        int low = 0;
+        int high = songs.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int end = starts[middle + 1];
+            if (end > time || (inclusive && end == time)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
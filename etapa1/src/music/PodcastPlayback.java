@@ -0,0 +1,240 @@
+package music;
+
+import fileio.Stats;
+import fileio.extended.PodcastInputExtended;
+import fileio.extended.SongInputExtended;
+import fileio.input.EpisodeInput;
+import user.UserDetails;
+
+/**
+ * Playback of a podcast, which remembers where every user left it
+ */
+final class PodcastPlayback implements Playback {
+
+    private static final int SECONDS_TO_SKIP = 90;
+
+    private final PodcastInputExtended podcastInput;
+
+    PodcastPlayback(final PodcastInputExtended podcastInput) {
+        this.podcastInput = podcastInput;
+    }
+
+    @Override
+    public SourceType getType() {
+        return SourceType.PODCAST;
+    }
+
+    @Override
+    public PodcastInputExtended getPodcast() {
+        return podcastInput;
+    }
+
+    @Override
+    public int getDuration() {
+        return podcastInput.getDuration();
+    }
+
+    @Override
+    public void play(final Player player, final UserDetails user) {
+        // If the user has previously played this podcast, retrieve the played time.
+        if (user.getAlreadyPlayedPodcasts().containsKey(podcastInput)) {
+            player.setPlayedTime(user.getAlreadyPlayedPodcasts().get(podcastInput));
+        }
+    }
+
+    @Override
+    public void pause(final Player player, final int timestamp, final UserDetails user) {
+        if (player.getRepeat() == 0) {
+            // If no repeat and podcast has finished, set as finished.
+            if (podcastInput.getDuration() <= player.getPlayedTime()) {
+                player.setPlayedTime(podcastInput.getDuration());
+                player.setFinished();
+            }
+        } else if (player.getRepeat() == 1) {
+            // For repeat once, reset the played time if the podcast has played twice.
+            if (podcastInput.getDuration() <= player.getPlayedTime()) {
+                player.setPlayedTime(player.getPlayedTime() - podcastInput.getDuration());
+                player.clearRepeat();
+            }
+        } else {
+            // For infinite repeat, loop the podcast.
+            player.setPlayedTime(player.getPlayedTime() % podcastInput.getDuration());
+        }
+        // Update the played time in the user's history for the podcast.
+        user.getAlreadyPlayedPodcasts().put(podcastInput, player.getPlayedTime());
+    }
+
+    @Override
+    public void repeatChanged(final Player player, final int timestamp) {
+    }
+
+    @Override
+    public Stats getStatus(final Player player, final int timestamp,
+                           final int currentPlayedTime) {
+        int playedTime = currentPlayedTime;
+        // If repeat mode is 'no repeat' (0).
+        if (player.getRepeat() == 0) {
+            // Check if the podcast has finished playing.
+            if (podcastInput.getDuration() <= playedTime) {
+                player.setPlayedTime(podcastInput.getDuration());
+                player.setFinished();
+                // Return a Stats object indicating the podcast has finished.
+                return player.getEmptyStatus();
+            }
+        }
+
+        // If repeat mode is 'repeat once' (1).
+        if (player.getRepeat() == 1) {
+            // Check if the podcast has been played more than its duration.
+            if (playedTime >= podcastInput.getDuration()) {
+                // Reset repeat mode to 'no repeat' and adjust the played time.
+                player.clearRepeat();
+                playedTime = playedTime % podcastInput.getDuration();
+            }
+        }
+
+        // If repeat mode is 'repeat infinite' (2).
+        if (player.getRepeat() == 2) {
+            // Continuously loop the podcast by calculating
+            // the current played time within its duration.
+            playedTime = timestamp % podcastInput.getDuration();
+        }
+
+        // The currently playing episode is the first one that ends after the played time.
+        int episodeIndex = podcastInput.findEpisode(playedTime);
+        if (episodeIndex < podcastInput.getEpisodes().size()) {
+            EpisodeInput episode = podcastInput.getEpisodes().get(episodeIndex);
+            return new Stats(
+                    episode.getName(),
+                    episode.getDuration() - (playedTime
+                            - podcastInput.getEpisodeStart(episodeIndex)),
+                    player.getRepeatMessage(),
+                    player.isShuffle(),
+                    player.isPaused()
+            );
+        }
+        return player.getEmptyStatus();
+    }
+
+    /**
+     * Skips forward in the current episode
+     *
+     * @param player    the player
+     * @param timestamp Current timestamp
+     * @return String message
+     */
+    @Override
+    public String forward(final Player player, final int timestamp) {
+        // Calculate the current played time in the podcast.
+        int currentPlayedTime = player.getCurrentPlayedTime(timestamp);
+        currentPlayedTime = currentPlayedTime % podcastInput.getDuration();
+
+        // Find the current episode in the podcast based on the played time.
+        int episodeIndex = podcastInput.findEpisode(currentPlayedTime);
+        currentPlayedTime -= podcastInput.getEpisodeStart(episodeIndex);
+        EpisodeInput currentEpisode = episodeIndex < podcastInput.getEpisodes().size()
+                ? podcastInput.getEpisodes().get(episodeIndex) : null;
+
+        // Ensure the current episode is not null.
+        assert currentEpisode != null;
+
+        // Adjust the timestamp at which the current episode started, skipping forward.
+        player.setTimestampStarted(player.getTimestampStarted()
+                - Math.min(currentEpisode.getDuration() - currentPlayedTime, SECONDS_TO_SKIP));
+
+        // Return a message indicating the successful forward skip.
+        return "Skipped forward successfully.";
+    }
+
+    /**
+     * Rewinds the current episode
+     *
+     * @param player    the player
+     * @param timestamp Current timestamp
+     * @return String response
+     */
+    @Override
+    public String backward(final Player player, final int timestamp) {
+        // Calculate the current played time in the podcast.
+        int currentPlayedTime = player.getCurrentPlayedTime(timestamp);
+        currentPlayedTime = currentPlayedTime % podcastInput.getDuration();
+
+        // Find the position in the podcast to move backward from.
+        int episodeIndex = podcastInput.findEpisode(currentPlayedTime);
+        currentPlayedTime -= podcastInput.getEpisodeStart(episodeIndex);
+
+        // Adjust the timestamp at which the current episode started, rewinding the playback.
+        player.setTimestampStarted(player.getTimestampStarted()
+                + Math.min(currentPlayedTime, SECONDS_TO_SKIP));
+
+        // Return a message indicating successful rewinding.
+        return "Rewound successfully.";
+    }
+
+    @Override
+    public String next(final Player player, final int timestamp, final int currentPlayedTime) {
+        // Adjust the current played time within the podcast's duration.
+        int playedTime = currentPlayedTime % podcastInput.getDuration();
+        // Find the current episode and the time played from it.
+        int episodeIndex = podcastInput.findEpisode(playedTime);
+        playedTime -= podcastInput.getEpisodeStart(episodeIndex);
+        int episodeDuration = episodeIndex < podcastInput.getEpisodes().size()
+                ? podcastInput.getEpisodes().get(episodeIndex).getDuration() : 0;
+        // Update the timestamp for when the episode started.
+        player.setTimestampStarted(player.getTimestampStarted()
+                - (episodeDuration - playedTime));
+        // If the player is paused, update the played time.
+        if (player.isPaused()) {
+            player.setPlayedTime(player.getPlayedTime() + episodeDuration - playedTime);
+        }
+        // Return a message indicating successful skip to the next track and its name.
+        return "Skipped to next track successfully. The current track is "
+                + player.getNextName(timestamp) + ".";
+    }
+
+    @Override
+    public String prev(final Player player, final int timestamp, final int currentPlayedTime) {
+        // Adjust the played time for the previous episode.
+        int playedTime = currentPlayedTime % podcastInput.getDuration();
+        playedTime -= podcastInput.getEpisodeStart(podcastInput.findEpisodeInclusive(playedTime));
+        player.setTimestampStarted(player.getTimestampStarted() - playedTime);
+        if (player.isPaused()) {
+            player.setPlayedTime(player.getPlayedTime() - playedTime);
+        }
+        // Return a message with the name of the previous episode.
+        return "Returned to previous track successfully. The current track is "
+                + player.getNextName(timestamp - playedTime) + ".";
+    }
+
+    @Override
+    public String getNextName(final Player player, final int timestamp,
+                              final int currentPlayedTime) {
+        int playedTime = currentPlayedTime;
+        // Handle each repeat mode and identify the next episode.
+        if (player.getRepeat() == 0) {
+            if (podcastInput.getDuration() <= playedTime) {
+                player.setFinished();
+                return "";
+            }
+        }
+        if (player.getRepeat() == 1) {
+            if (playedTime >= podcastInput.getDuration()) {
+                player.clearRepeat();
+                playedTime = playedTime % podcastInput.getDuration();
+            }
+        }
+        if (player.getRepeat() == 2) {
+            playedTime = timestamp % podcastInput.getDuration();
+        }
+        int episodeIndex = podcastInput.findEpisode(playedTime);
+        if (episodeIndex < podcastInput.getEpisodes().size()) {
+            return podcastInput.getEpisodes().get(episodeIndex).getName();
+        }
+        return "";
+    }
+
+    @Override
+    public SongInputExtended getPlayingSong(final Player player, final int timestamp) {
+        return null;
+    }
+}
@@ -0,0 +1,162 @@
+package music;
+
+import fileio.Stats;
+import fileio.extended.SongInputExtended;
+import user.UserDetails;
+
+/**
+ * Playback of a single song
+ */
+final class SongPlayback implements Playback {
+
+    private final SongInputExtended songInput;
+
+    SongPlayback(final SongInputExtended songInput) {
+        this.songInput = songInput;
+    }
+
+    @Override
+    public SourceType getType() {
+        return SourceType.SONG;
+    }
+
+    @Override
+    public SongInputExtended getSong() {
+        return songInput;
+    }
+
+    @Override
+    public int getDuration() {
+        return songInput.getDuration();
+    }
+
+    @Override
+    public void play(final Player player, final UserDetails user) {
+    }
+
+    @Override
+    public void pause(final Player player, final int timestamp, final UserDetails user) {
+        // Check if the song has finished playing.
+        if (songInput.getDuration() <= player.getPlayedTime()) {
+            if (player.getRepeat() == 1) {
+                // For repeat once, reset the played time if the song has played twice.
+                if (player.getPlayedTime() - songInput.getDuration() >= songInput.getDuration()) {
+                    player.setPlayedTime(songInput.getDuration());
+                    player.setFinished();
+                } else {
+                    player.setPlayedTime(player.getPlayedTime() - songInput.getDuration());
+                }
+                player.clearRepeat();
+            } else if (player.getRepeat() == 2) {
+                // For infinite repeat, loop the song.
+                player.setPlayedTime(player.getPlayedTime() % songInput.getDuration());
+            } else {
+                // If no repeat, set the song as finished.
+                player.setPlayedTime(songInput.getDuration());
+                player.setFinished();
+            }
+        }
+    }
+
+    @Override
+    public void repeatChanged(final Player player, final int timestamp) {
+        // If repeat mode is reset to no repeat, adjust the timestamp started for the song.
+        if (player.getRepeat() == 0) {
+            player.setTimestampStarted(timestamp
+                    - (player.getCurrentPlayedTime(timestamp) % songInput.getDuration()));
+        }
+    }
+
+    @Override
+    public Stats getStatus(final Player player, final int timestamp,
+                           final int currentPlayedTime) {
+        int playedTime = currentPlayedTime;
+        // Check if the current played time exceeds the duration of the song.
+        if (songInput.getDuration() <= playedTime) {
+            // If repeat mode is 'repeat once' (1).
+            if (player.getRepeat() == 1) {
+                player.clearRepeat();
+                // Check if the song has played more than twice its duration.
+                if (timestamp - songInput.getDuration() > songInput.getDuration()) {
+                    // If so, mark the song as finished and return default Stats.
+                    player.setFinished();
+                    return player.getEmptyStatus();
+                }
+                // Otherwise, adjust the played time for another round.
+                playedTime -= songInput.getDuration();
+            } else if (player.getRepeat() == 2) {
+                // Calculate the current played time within the song's duration loop.
+                playedTime = playedTime % songInput.getDuration();
+            } else {
+                // Mark the song as finished and return default Stats.
+                player.setFinished();
+                return player.getEmptyStatus();
+            }
+        }
+        return new Stats(
+                songInput.getName(),
+                songInput.getDuration() - playedTime,
+                player.getRepeatMessage(),
+                player.isShuffle(),
+                player.isPaused()
+        );
+    }
+
+    @Override
+    public String next(final Player player, final int timestamp, final int currentPlayedTime) {
+        // Adjust the current played time within the song's duration.
+        int playedTime = currentPlayedTime % songInput.getDuration();
+        // Update the timestamp when the song started.
+        player.setTimestampStarted(player.getTimestampStarted()
+                - (songInput.getDuration() - playedTime));
+        // If the player is paused, update the played time accordingly.
+        if (player.isPaused()) {
+            player.setPlayedTime(player.getPlayedTime() + songInput.getDuration() - playedTime);
+        }
+        // Return a message indicating successful skip to the next track and its name.
+        return "Skipped to next track successfully. The current track is "
+                + player.getNextName(timestamp) + ".";
+    }
+
+    @Override
+    public String prev(final Player player, final int timestamp, final int currentPlayedTime) {
+        // Calculate the previous position and adjust the timestamp started.
+        int playedTime = currentPlayedTime % songInput.getDuration();
+        player.setTimestampStarted(player.getTimestampStarted()
+                + songInput.getDuration() - playedTime);
+        // If the player is paused, adjust the played time accordingly.
+        if (player.isPaused()) {
+            player.setPlayedTime(player.getPlayedTime() - playedTime);
+        }
+        // Return a message with the name of the current song.
+        return "Returned to previous track successfully. The current track is "
+                + songInput.getName() + ".";
+    }
+
+    @Override
+    public String getNextName(final Player player, final int timestamp,
+                              final int currentPlayedTime) {
+        // Check if the song has finished playing.
+        if (songInput.getDuration() <= currentPlayedTime) {
+            // Handle repeat once mode.
+            if (player.getRepeat() == 1) {
+                player.clearRepeat();
+                if (timestamp - songInput.getDuration() >= songInput.getDuration()) {
+                    player.setFinished();
+                    return "";
+                }
+            } else {
+                // Mark as finished if the song has played its duration.
+                player.setFinished();
+                return "";
+            }
+        }
+        // Return the name of the current song.
+        return songInput.getName();
+    }
+
+    @Override
+    public SongInputExtended getPlayingSong(final Player player, final int timestamp) {
+        return songInput;
+    }
+}
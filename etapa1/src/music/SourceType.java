@@ -0,0 +1,54 @@
+package music;
+
+/**
+ * The types of sources a player can load, with the names used by the commands
+ * and the messages of their repeat modes
+ */
+public enum SourceType {
+    SONG("song", "Repeat Once", "Repeat Infinite"),
+    PLAYLIST("playlist", "Repeat All", "Repeat Current Song"),
+    PODCAST("podcast", "Repeat Once", "Repeat Infinite");
+
+    private final String name;
+    private final String repeatOnceMessage;
+    private final String repeatInfiniteMessage;
+
+    SourceType(final String name, final String repeatOnceMessage,
+               final String repeatInfiniteMessage) {
+        this.name = name;
+        this.repeatOnceMessage = repeatOnceMessage;
+        this.repeatInfiniteMessage = repeatInfiniteMessage;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the message based on the repeat mode
+     *
+     * @param repeat repeat mode (0 - no repeat, 1 - once/all, 2 - infinite/current song)
+     * @return String repeat
+     */
+    public String getRepeatMessage(final int repeat) {
+        if (repeat == 1) {
+            return repeatOnceMessage;
+        } else if (repeat == 2) {
+            return repeatInfiniteMessage;
+        }
+        return "No Repeat";
+    }
+
+    /**
+     * @param typeName name of the type, as given in the commands
+     * @return the source type with the given name or null if there is none
+     */
+    public static SourceType fromName(final String typeName) {
+        for (SourceType type : values()) {
+            if (type.name.equals(typeName)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,57 @@
+package music;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of playlist timelines, shared by all the players of a playlist. Every
+ * playlist registry has its own cache, so the timelines of a run are dropped together
+ * with its playlists. The entries are keyed by the playlist (by identity), its version
+ * and the shuffle seed (null for the original order), so changing the songs of a
+ * playlist makes the old entries unreachable until they are evicted. Timelines never
+ * change once created.
+ */
+final class TimelineCache {
+
+    private static final int CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<List<Object>, PlaylistTimeline> entries =
+            new LinkedHashMap<>(CAPACITY, LOAD_FACTOR, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        final Map.Entry<List<Object>, PlaylistTimeline> eldest) {
+                    return size() > CAPACITY;
+                }
+            };
+
+    /**
+     * @param playlist the playlist
+     * @return timeline of the playlist in its original order
+     */
+    PlaylistTimeline original(final Playlist playlist) {
+        return get(playlist, null);
+    }
+
+    /**
+     * @param playlist the playlist
+     * @param seed     seed of the shuffle
+     * @return timeline of the playlist shuffled from its original order with the given seed
+     */
+    PlaylistTimeline shuffled(final Playlist playlist, final long seed) {
+        return get(playlist, seed);
+    }
+
+    private synchronized PlaylistTimeline get(final Playlist playlist, final Long seed) {
+        List<Object> key = Arrays.asList(playlist, playlist.getVersion(), seed);
+        PlaylistTimeline timeline = entries.get(key);
+        if (timeline == null) {
+            PlayOrder order = PlayOrder.original(playlist.getSongs().size());
+            timeline = new PlaylistTimeline(playlist, seed == null ? order : order.shuffle(seed));
+            entries.put(key, timeline);
+        }
+        return timeline;
+    }
+}
@@ -0,0 +1,44 @@
+package search;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used while the indexes are built
+ * to avoid boxing every ordinal.
+ */
+final class IntList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Appends a value at the end of the list
+     * @param value the value
+     */
+    void add(final int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * @return the last value of the list, the list must not be empty
+     */
+    int last() {
+        return values[size - 1];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return a trimmed copy of the values
+     */
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
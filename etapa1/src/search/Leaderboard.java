@@ -0,0 +1,185 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Ranking of items (library songs by likes, playlists by followers) by a score,
+ * ties broken by the item id (library position, creation order). The ids are 0 to
+ * size - 1, in the order the items are added. The items are the leaves of a tournament
+ * tree kept in an int array: every node holds the best item below it, so a score change
+ * only replays the matches on the path from its leaf to the root, in O(log n), and the
+ * first items are found by walking down from the root. It also keeps an unmodifiable
+ * snapshot of the first names, so reading the top is a single field read, rebuilt only
+ * when an item enters, leaves or moves inside the top.
+ */
+public final class Leaderboard {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    private final IntFunction<String> names;
+    private final int topSize;
+    private int[] scores;
+    // Node 1 is the root, the children of node i are 2i and 2i + 1 and the leaf of the
+    // item id is capacity + id. Every node holds the best id below it, or NONE.
+    private int[] winners;
+    private int capacity;
+    private int size;
+    // Nodes that may hold the next name while the top is built, at most one per level
+    // for every name already found.
+    private final int[] candidates;
+    // Key of the last item in the top, every item with a greater key is outside of it.
+    private long lastTopKey = Long.MAX_VALUE;
+    private volatile List<String> top = Collections.emptyList();
+
+    public Leaderboard(final IntFunction<String> names, final int topSize) {
+        this(names, topSize, new int[0]);
+    }
+
+    /**
+     * Creates the ranking of the items 0 to scores.length - 1 at once: the tree is built
+     * bottom-up in linear time and the top is built a single time
+     *
+     * @param names   name of every item, by id
+     * @param topSize number of names in the top
+     * @param scores  score of every item, by id
+     */
+    public Leaderboard(final IntFunction<String> names, final int topSize,
+                       final int[] scores) {
+        this.names = names;
+        this.topSize = topSize;
+        candidates = new int[topSize * Integer.SIZE + 1];
+        size = scores.length;
+        capacity = INITIAL_CAPACITY;
+        while (capacity < size) {
+            capacity *= 2;
+        }
+        this.scores = Arrays.copyOf(scores, capacity);
+        build();
+        refreshTop();
+    }
+
+    /**
+     * Adds a new item to the ranking
+     *
+     * @param id    the item id, the number of items already added
+     * @param score the item score
+     */
+    public synchronized void add(final int id, final int score) {
+        if (id != size) {
+            throw new IllegalArgumentException("Expected item " + size + ", got " + id);
+        }
+        size++;
+        if (size > capacity) {
+            capacity *= 2;
+            scores = Arrays.copyOf(scores, capacity);
+            scores[id] = score;
+            build();
+        } else {
+            scores[id] = score;
+            replay(id);
+        }
+        if (key(id) <= lastTopKey) {
+            refreshTop();
+        }
+    }
+
+    /**
+     * Moves an item to its new place after its score changed
+     *
+     * @param id    the item id
+     * @param score score after the change
+     */
+    public synchronized void update(final int id, final int score) {
+        if (scores[id] == score) {
+            return;
+        }
+        long oldKey = key(id);
+        scores[id] = score;
+        replay(id);
+        if (oldKey <= lastTopKey || key(id) <= lastTopKey) {
+            refreshTop();
+        }
+    }
+
+    /**
+     * @return the names of the first items, a snapshot that doesn't change afterwards
+     */
+    public List<String> getTop() {
+        return top;
+    }
+
+    private void build() {
+        winners = new int[2 * capacity];
+        for (int id = 0; id < capacity; id++) {
+            winners[capacity + id] = id < size ? id : NONE;
+        }
+        for (int node = capacity - 1; node > 0; node--) {
+            winners[node] = best(winners[2 * node], winners[2 * node + 1]);
+        }
+    }
+
+    private void replay(final int id) {
+        int node = capacity + id;
+        winners[node] = id;
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            winners[node] = best(winners[2 * node], winners[2 * node + 1]);
+        }
+    }
+
+    private void refreshTop() {
+        int count = Math.min(size, topSize);
+        List<String> topNames = new ArrayList<>(count);
+        int found = 0;
+        int pending = 0;
+        if (count > 0) {
+            candidates[pending++] = 1;
+        }
+        long key = Long.MAX_VALUE;
+        while (found < count) {
+            // The best candidate holds the next item, the nodes it beat on the way down
+            // to its leaf become candidates.
+            int chosen = 0;
+            for (int i = 1; i < pending; i++) {
+                if (best(winners[candidates[i]], winners[candidates[chosen]])
+                        == winners[candidates[i]]) {
+                    chosen = i;
+                }
+            }
+            int node = candidates[chosen];
+            candidates[chosen] = candidates[--pending];
+            int id = winners[node];
+            while (node < capacity) {
+                int other = winners[2 * node] == id ? 2 * node + 1 : 2 * node;
+                if (winners[other] != NONE) {
+                    candidates[pending++] = other;
+                }
+                node = other ^ 1;
+            }
+            topNames.add(names.apply(id));
+            key = key(id);
+            found++;
+        }
+        lastTopKey = count < topSize ? Long.MAX_VALUE : key;
+        top = Collections.unmodifiableList(topNames);
+    }
+
+    private int best(final int first, final int second) {
+        if (first == NONE) {
+            return second;
+        }
+        if (second == NONE) {
+            return first;
+        }
+        return key(first) < key(second) ? first : second;
+    }
+
+    private long key(final int id) {
+        // The negated score in the high bits and the id in the low bits, so the smaller
+        // key is the higher score, then the smaller id.
+        return (-(long) scores[id] << Integer.SIZE) | id;
+    }
+}
@@ -0,0 +1,187 @@
+package search;
+
+import fileio.input.SongInput;
+import snapshot.SnapshotReader;
+import snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram index over the lowercase song lyrics. A song can contain the searched
+ * text only if it contains all of its trigrams, so intersecting their posting
+ * lists gives the candidates that are then verified with String.contains.
+ */
+public final class LyricsIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int CHAR_BITS = 16;
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] lyrics;
+    private final String[] lowerLyrics;
+    private final Map<Long, int[]> trigrams;
+
+    public LyricsIndex(final List<? extends SongInput> songs) {
+        lyrics = new String[songs.size()];
+        lowerLyrics = new String[songs.size()];
+        Map<Long, IntList> postings = new HashMap<>();
+
+        for (int ordinal = 0; ordinal < songs.size(); ordinal++) {
+            String songLyrics = songs.get(ordinal).getLyrics();
+            lyrics[ordinal] = songLyrics == null ? "" : songLyrics;
+            lowerLyrics[ordinal] = lyrics[ordinal].toLowerCase();
+            String text = lowerLyrics[ordinal];
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                IntList list = postings.computeIfAbsent(trigram(text, i), k -> new IntList());
+                // The same trigram can appear many times in one song.
+                if (list.size() == 0 || list.last() != ordinal) {
+                    list.add(ordinal);
+                }
+            }
+        }
+
+        trigrams = new HashMap<>(postings.size() * 2);
+        for (Map.Entry<Long, IntList> entry : postings.entrySet()) {
+            trigrams.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    private LyricsIndex(final String[] lyrics, final String[] lowerLyrics,
+                        final Map<Long, int[]> trigrams) {
+        this.lyrics = lyrics;
+        this.lowerLyrics = lowerLyrics;
+        this.trigrams = trigrams;
+    }
+
+    /**
+     * Saves the lyrics, in their original and lowercase forms, and the posting list of
+     * every trigram to a snapshot. Lyrics that are already lowercase take no extra space,
+     * since equal strings share their id.
+     *
+     * @param writer the snapshot writer
+     * @throws IOException if the index can't be written
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeStrings(Arrays.asList(lyrics));
+        writer.writeStrings(Arrays.asList(lowerLyrics));
+        long[] keys = new long[trigrams.size()];
+        int i = 0;
+        for (long key : trigrams.keySet()) {
+            keys[i++] = key;
+        }
+        writer.writeLongs(keys);
+        for (long key : keys) {
+            writer.writeInts(trigrams.get(key));
+        }
+    }
+
+    /**
+     * Reads an index saved with writeTo, without lowercasing the lyrics or splitting them
+     * into trigrams again
+     *
+     * @param reader the snapshot reader
+     * @return the index
+     */
+    public static LyricsIndex readFrom(final SnapshotReader reader) {
+        String[] lyrics = reader.readStrings().toArray(new String[0]);
+        String[] lowerLyrics = reader.readStrings().toArray(new String[0]);
+        long[] keys = reader.readLongs();
+        Map<Long, int[]> trigrams = new HashMap<>(keys.length * 2);
+        for (long key : keys) {
+            trigrams.put(key, reader.readInts());
+        }
+        return new LyricsIndex(lyrics, lowerLyrics, trigrams);
+    }
+
+    /**
+     * Finds the songs whose lowercase lyrics may contain the given text
+     *
+     * @param lowerText lowercase searched text
+     * @return sorted candidate ordinals or null when the text is too short to be indexed
+     */
+    public int[] candidates(final String lowerText) {
+        if (!isIndexed(lowerText)) {
+            return null;
+        }
+        List<int[]> postings = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= lowerText.length(); i++) {
+            int[] ordinals = trigrams.getOrDefault(trigram(lowerText, i), EMPTY);
+            if (ordinals.length == 0) {
+                return EMPTY;
+            }
+            postings.add(ordinals);
+        }
+        return SongIndex.intersect(postings);
+    }
+
+    /**
+     * @param lowerText lowercase searched text
+     * @return true if the text is long enough to be looked up by trigrams
+     */
+    public boolean isIndexed(final String lowerText) {
+        return lowerText.length() >= GRAM_LENGTH;
+    }
+
+    /**
+     * Estimates how many songs may contain the given text, as the size of the
+     * smallest posting list among its trigrams
+     *
+     * @param lowerText lowercase searched text
+     * @return upper bound for the number of matching songs
+     */
+    public int estimate(final String lowerText) {
+        int estimate = lyrics.length;
+        for (int i = 0; i + GRAM_LENGTH <= lowerText.length(); i++) {
+            estimate = Math.min(estimate,
+                    trigrams.getOrDefault(trigram(lowerText, i), EMPTY).length);
+        }
+        return estimate;
+    }
+
+    /**
+     * Computes the cost of finding the candidates, as the total size of the posting lists
+     *
+     * @param lowerText lowercase searched text
+     * @return the number of ordinals read by candidates
+     */
+    public long cost(final String lowerText) {
+        long cost = 0;
+        for (int i = 0; i + GRAM_LENGTH <= lowerText.length(); i++) {
+            cost += trigrams.getOrDefault(trigram(lowerText, i), EMPTY).length;
+        }
+        return cost;
+    }
+
+    /**
+     * Checks if the lyrics of a song contain the given text, case-sensitive
+     *
+     * @param ordinal song position in the library
+     * @param text    searched text
+     * @return true or false
+     */
+    public boolean containsExact(final int ordinal, final String text) {
+        return lyrics[ordinal].contains(text);
+    }
+
+    /**
+     * Checks if the lyrics of a song contain the given text, ignoring the case
+     *
+     * @param ordinal   song position in the library
+     * @param lowerText lowercase searched text
+     * @return true or false
+     */
+    public boolean contains(final int ordinal, final String lowerText) {
+        return lowerLyrics[ordinal].contains(lowerText);
+    }
+
+    private static long trigram(final String text, final int from) {
+        return ((long) text.charAt(from) << (2 * CHAR_BITS))
+                | ((long) text.charAt(from + 1) << CHAR_BITS)
+                | text.charAt(from + 2);
+    }
+}
@@ -0,0 +1,165 @@
+package search;
+
+import snapshot.SnapshotReader;
+import snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index used for the name filter. The names are kept sorted together with their
+ * library ordinals, so all the names that start with a prefix form a contiguous
+ * range that is found with two binary searches.
+ */
+public final class PrefixIndex {
+
+    private final String[] names;
+    private final String[] sortedNames;
+    private final int[] sortedOrdinals;
+
+    public PrefixIndex(final List<String> names) {
+        this.names = names.toArray(new String[0]);
+
+        // The sort is stable, so equal names stay in library order.
+        Integer[] ordinals = new Integer[this.names.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = i;
+        }
+        Arrays.sort(ordinals, (o1, o2) -> this.names[o1].compareTo(this.names[o2]));
+
+        sortedNames = new String[ordinals.length];
+        sortedOrdinals = new int[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            sortedOrdinals[i] = ordinals[i];
+            sortedNames[i] = this.names[ordinals[i]];
+        }
+    }
+
+    private PrefixIndex(final String[] names, final int[] sortedOrdinals) {
+        this.names = names;
+        this.sortedOrdinals = sortedOrdinals;
+        sortedNames = new String[sortedOrdinals.length];
+        for (int i = 0; i < sortedOrdinals.length; i++) {
+            sortedNames[i] = names[sortedOrdinals[i]];
+        }
+    }
+
+    /**
+     * Saves the names and their sorted order to a snapshot
+     *
+     * @param writer the snapshot writer
+     * @throws IOException if the index can't be written
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeStrings(Arrays.asList(names));
+        writer.writeInts(sortedOrdinals);
+    }
+
+    /**
+     * Reads an index saved with writeTo, without sorting the names again
+     *
+     * @param reader the snapshot reader
+     * @return the index
+     */
+    public static PrefixIndex readFrom(final SnapshotReader reader) {
+        String[] names = reader.readStrings().toArray(new String[0]);
+        return new PrefixIndex(names, reader.readInts());
+    }
+
+    /**
+     * @return the number of indexed names
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @param prefix the searched prefix
+     * @return how many names start with the prefix
+     */
+    public int count(final String prefix) {
+        int low = lowerBound(prefix);
+        return upperBound(prefix, low) - low;
+    }
+
+    /**
+     * @param prefix the searched prefix
+     * @return ordinals of all the names that start with the prefix, in library order
+     */
+    public int[] find(final String prefix) {
+        int low = lowerBound(prefix);
+        int[] ordinals = Arrays.copyOfRange(sortedOrdinals, low, upperBound(prefix, low));
+        Arrays.sort(ordinals);
+        return ordinals;
+    }
+
+    /**
+     * Finds the first names in library order that start with the prefix
+     *
+     * @param prefix the searched prefix
+     * @param limit  maximum number of results
+     * @return ordinals of the first matching names, in library order
+     */
+    public int[] findFirst(final String prefix, final int limit) {
+        int low = lowerBound(prefix);
+        int high = upperBound(prefix, low);
+        long count = high - low;
+
+        // When few names match it's cheaper to sort them, otherwise the matches are dense
+        // enough for a library order scan to find the first ones quickly.
+        if (count * count <= (long) names.length * limit) {
+            int[] ordinals = Arrays.copyOfRange(sortedOrdinals, low, high);
+            Arrays.sort(ordinals);
+            return ordinals.length > limit ? Arrays.copyOf(ordinals, limit) : ordinals;
+        }
+
+        int[] ordinals = new int[limit];
+        int found = 0;
+        for (int i = 0; i < names.length && found < limit; i++) {
+            if (names[i].startsWith(prefix)) {
+                ordinals[found++] = i;
+            }
+        }
+        return found < limit ? Arrays.copyOf(ordinals, found) : ordinals;
+    }
+
+    /**
+     * @param ordinal position in the library
+     * @param prefix  the searched prefix
+     * @return true if the name with the given ordinal starts with the prefix
+     */
+    public boolean matches(final int ordinal, final String prefix) {
+        return names[ordinal].startsWith(prefix);
+    }
+
+    private int lowerBound(final String prefix) {
+        // First position with a name greater or equal to the prefix.
+        int low = 0;
+        int high = sortedNames.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedNames[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(final String prefix, final int from) {
+        // The names after the lower bound start with the prefix up to a point.
+        int low = from;
+        int high = sortedNames.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedNames[middle].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,414 @@
+package search;
+
+import fileio.input.Filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plans and runs a song search. Every non-null filter becomes a predicate that knows
+ * how many songs it may match, how expensive it is to list them and how to test a
+ * single song. The search is driven by the cheapest predicate (or by a library order
+ * scan), the other predicates are tested per candidate and the search stops as soon
+ * as the limit is reached, since the candidates come in library order.
+ */
+public final class QueryPlanner {
+
+    /**
+     * What a search was driven by, used for the debug counters
+     */
+    public enum Driver {
+        SCAN, NAME, ALBUM, ARTIST, GENRE, TAG, LYRICS, RELEASE_YEAR, DURATION
+    }
+
+    private static final int[] EMPTY = new int[0];
+
+    private static final LongAdder[] DECISIONS = new LongAdder[Driver.values().length];
+    private static final LongAdder CANDIDATES_CHECKED = new LongAdder();
+
+    static {
+        for (int i = 0; i < DECISIONS.length; i++) {
+            DECISIONS[i] = new LongAdder();
+        }
+    }
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * Searches the songs that match all the given filters
+     *
+     * @param index  index built over the library songs
+     * @param filter given filter
+     * @param limit  maximum number of results
+     * @return ordinals of the first matching songs, in library order
+     */
+    public static int[] search(final SongIndex index, final Filters filter, final int limit) {
+        List<Predicate> predicates = createPredicates(index, filter);
+        // Without any filter the search returns nothing. An empty tags list is
+        // still a filter that every song matches.
+        if ((predicates.isEmpty() && filter.getTags() == null) || index.size() == 0) {
+            return EMPTY;
+        }
+
+        Predicate driver = choose(predicates, index.size(), limit);
+        DECISIONS[driver == null ? Driver.SCAN.ordinal() : driver.driver().ordinal()]
+                .increment();
+
+        int[] candidates = driver == null ? null : driver.candidates();
+        int candidatesCount = candidates == null ? index.size() : candidates.length;
+        int[] results = new int[limit];
+        int found = 0;
+        int checked = 0;
+        for (int i = 0; i < candidatesCount && found < limit; i++) {
+            int ordinal = candidates == null ? i : candidates[i];
+            checked++;
+            if (matchesAll(predicates, driver, ordinal)) {
+                results[found++] = ordinal;
+            }
+        }
+        CANDIDATES_CHECKED.add(checked);
+        return Arrays.copyOf(results, found);
+    }
+
+    /**
+     * @param driver what the search was driven by
+     * @return how many searches were driven by it
+     */
+    public static long getDecisions(final Driver driver) {
+        return DECISIONS[driver.ordinal()].sum();
+    }
+
+    /**
+     * @return how many songs were tested against the filters by all the searches
+     */
+    public static long getCandidatesChecked() {
+        return CANDIDATES_CHECKED.sum();
+    }
+
+    /**
+     * @return the debug counters, one "driver=count" pair for every driver
+     */
+    public static String describeCounters() {
+        StringBuilder builder = new StringBuilder("planner:");
+        for (Driver driver : Driver.values()) {
+            builder.append(' ').append(driver).append('=').append(getDecisions(driver));
+        }
+        return builder.append(" checked=").append(getCandidatesChecked()).toString();
+    }
+
+    /**
+     * Resets all the debug counters
+     */
+    public static void resetCounters() {
+        for (LongAdder decision : DECISIONS) {
+            decision.reset();
+        }
+        CANDIDATES_CHECKED.reset();
+    }
+
+    private static List<Predicate> createPredicates(final SongIndex index,
+                                                    final Filters filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getName() != null) {
+            predicates.add(new NamePredicate(index.getNames(), filter.getName()));
+        }
+        if (filter.getAlbum() != null) {
+            predicates.add(new PostingPredicate(Driver.ALBUM,
+                    index.getAlbumPostings(filter.getAlbum())));
+        }
+        if (filter.getArtist() != null) {
+            predicates.add(new PostingPredicate(Driver.ARTIST,
+                    index.getArtistPostings(filter.getArtist())));
+        }
+        if (filter.getGenre() != null) {
+            predicates.add(new PostingPredicate(Driver.GENRE,
+                    index.getGenrePostings(filter.getGenre())));
+        }
+        if (filter.getTags() != null) {
+            for (String tag : filter.getTags()) {
+                predicates.add(new PostingPredicate(Driver.TAG, index.getTagPostings(tag)));
+            }
+        }
+        if (filter.getLyrics() != null) {
+            // The lyrics are compared ignoring the case only when they are the first filter.
+            boolean ignoreCase = filter.getName() == null
+                    && filter.getAlbum() == null && filter.getArtist() == null;
+            predicates.add(new LyricsPredicate(index.getLyrics(), filter.getLyrics(),
+                    ignoreCase, index.size()));
+        }
+        if (filter.getReleaseYear() != null) {
+            predicates.add(new RangePredicate(Driver.RELEASE_YEAR,
+                    index.getReleaseYears(), filter.getReleaseYear()));
+        }
+        if (filter.getDuration() != null) {
+            predicates.add(new RangePredicate(Driver.DURATION,
+                    index.getDurations(), filter.getDuration()));
+        }
+        return predicates;
+    }
+
+    /**
+     * Chooses the predicate that drives the search
+     *
+     * @return the cheapest predicate or null if scanning the library is cheaper
+     */
+    private static Predicate choose(final List<Predicate> predicates,
+                                    final int size, final int limit) {
+        // Assuming independent predicates, estimate how many songs match all of them
+        // and how much of the library a scan reads until it finds the first ones.
+        double expectedMatches = size;
+        for (Predicate predicate : predicates) {
+            expectedMatches *= Math.min(1.0, (double) predicate.estimate() / size);
+        }
+        double scanned = expectedMatches >= limit ? limit * size / expectedMatches : size;
+        double bestCost = scanned * Math.max(1, predicates.size());
+
+        Predicate best = null;
+        for (Predicate predicate : predicates) {
+            if (predicate.cost() == Long.MAX_VALUE) {
+                continue;
+            }
+            // Listing the candidates, then testing the other predicates on each of them.
+            double cost = predicate.cost()
+                    + (double) predicate.estimate() * (predicates.size() - 1);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = predicate;
+            }
+        }
+        return best;
+    }
+
+    private static boolean matchesAll(final List<Predicate> predicates,
+                                      final Predicate driver, final int ordinal) {
+        for (Predicate predicate : predicates) {
+            if ((predicate != driver || !driver.exact()) && !predicate.matches(ordinal)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long sortCost(final long count) {
+        return count * (Long.SIZE - Long.numberOfLeadingZeros(count));
+    }
+
+    /**
+     * A filter that can be tested per song and may be able to list its matches
+     */
+    private interface Predicate {
+        /**
+         * @return the driver type used by the counters
+         */
+        Driver driver();
+
+        /**
+         * @return upper bound for the number of matching songs
+         */
+        long estimate();
+
+        /**
+         * @return cost of listing the candidates or Long.MAX_VALUE if they can't be listed
+         */
+        long cost();
+
+        /**
+         * @return sorted ordinals that include all the matching songs
+         */
+        int[] candidates();
+
+        /**
+         * @return true if the candidates are exactly the matching songs
+         */
+        boolean exact();
+
+        /**
+         * @param ordinal song position in the library
+         * @return true if the song matches
+         */
+        boolean matches(int ordinal);
+    }
+
+    private static final class PostingPredicate implements Predicate {
+        private final Driver driver;
+        private final int[] postings;
+
+        PostingPredicate(final Driver driver, final int[] postings) {
+            this.driver = driver;
+            this.postings = postings;
+        }
+
+        @Override
+        public Driver driver() {
+            return driver;
+        }
+
+        @Override
+        public long estimate() {
+            return postings.length;
+        }
+
+        @Override
+        public long cost() {
+            return postings.length;
+        }
+
+        @Override
+        public int[] candidates() {
+            return postings;
+        }
+
+        @Override
+        public boolean exact() {
+            return true;
+        }
+
+        @Override
+        public boolean matches(final int ordinal) {
+            return Arrays.binarySearch(postings, ordinal) >= 0;
+        }
+    }
+
+    private static final class NamePredicate implements Predicate {
+        private final PrefixIndex names;
+        private final String prefix;
+        private final int count;
+
+        NamePredicate(final PrefixIndex names, final String prefix) {
+            this.names = names;
+            this.prefix = prefix;
+            this.count = names.count(prefix);
+        }
+
+        @Override
+        public Driver driver() {
+            return Driver.NAME;
+        }
+
+        @Override
+        public long estimate() {
+            return count;
+        }
+
+        @Override
+        public long cost() {
+            return sortCost(count);
+        }
+
+        @Override
+        public int[] candidates() {
+            return names.find(prefix);
+        }
+
+        @Override
+        public boolean exact() {
+            return true;
+        }
+
+        @Override
+        public boolean matches(final int ordinal) {
+            return names.matches(ordinal, prefix);
+        }
+    }
+
+    private static final class RangePredicate implements Predicate {
+        private final Driver driver;
+        private final RangeIndex rangeIndex;
+        private final boolean lessThan;
+        private final int bound;
+        private final int count;
+
+        RangePredicate(final Driver driver, final RangeIndex rangeIndex,
+                       final String rangeFilter) {
+            this.driver = driver;
+            this.rangeIndex = rangeIndex;
+            // '<' for lower values and anything else for greater ones, e.g. "<1990" or ">2000".
+            this.lessThan = rangeFilter.charAt(0) == '<';
+            this.bound = Integer.parseInt(rangeFilter.substring(1));
+            this.count = rangeIndex.count(lessThan, bound);
+        }
+
+        @Override
+        public Driver driver() {
+            return driver;
+        }
+
+        @Override
+        public long estimate() {
+            return count;
+        }
+
+        @Override
+        public long cost() {
+            return sortCost(count);
+        }
+
+        @Override
+        public int[] candidates() {
+            return rangeIndex.find(lessThan, bound);
+        }
+
+        @Override
+        public boolean exact() {
+            return true;
+        }
+
+        @Override
+        public boolean matches(final int ordinal) {
+            return rangeIndex.matches(ordinal, lessThan, bound);
+        }
+    }
+
+    private static final class LyricsPredicate implements Predicate {
+        private final LyricsIndex lyrics;
+        private final String text;
+        private final boolean ignoreCase;
+        private final long estimate;
+        private final long cost;
+
+        LyricsPredicate(final LyricsIndex lyrics, final String text,
+                        final boolean ignoreCase, final int size) {
+            this.lyrics = lyrics;
+            this.ignoreCase = ignoreCase;
+            this.text = ignoreCase ? text.toLowerCase() : text;
+            // Only the lowercase lyrics are indexed, and only texts of at least a trigram.
+            boolean indexed = ignoreCase && lyrics.isIndexed(this.text);
+            this.estimate = indexed ? lyrics.estimate(this.text) : size;
+            this.cost = indexed ? lyrics.cost(this.text) : Long.MAX_VALUE;
+        }
+
+        @Override
+        public Driver driver() {
+            return Driver.LYRICS;
+        }
+
+        @Override
+        public long estimate() {
+            return estimate;
+        }
+
+        @Override
+        public long cost() {
+            return cost;
+        }
+
+        @Override
+        public int[] candidates() {
+            return lyrics.candidates(text);
+        }
+
+        @Override
+        public boolean exact() {
+            return false;
+        }
+
+        @Override
+        public boolean matches(final int ordinal) {
+            return ignoreCase ? lyrics.contains(ordinal, text)
+                    : lyrics.containsExact(ordinal, text);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package search;
+
+import snapshot.SnapshotReader;
+import snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Index over a numeric song field (release year, duration). The ordinals are kept
+ * sorted by value, so the songs with a value lower or greater than a bound form
+ * a contiguous slice found with a binary search.
+ */
+public final class RangeIndex {
+
+    private final int[] values;
+    private final int[] sortedValues;
+    private final int[] sortedOrdinals;
+
+    public RangeIndex(final int[] values) {
+        this.values = values.clone();
+
+        // The values are packed with their ordinal, so sorting them also sorts the ordinals.
+        long[] packed = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            packed[i] = ((long) values[i] << Integer.SIZE) | i;
+        }
+        Arrays.sort(packed);
+
+        sortedValues = new int[values.length];
+        sortedOrdinals = new int[values.length];
+        for (int i = 0; i < packed.length; i++) {
+            sortedValues[i] = (int) (packed[i] >> Integer.SIZE);
+            sortedOrdinals[i] = (int) packed[i];
+        }
+    }
+
+    private RangeIndex(final int[] values, final int[] sortedOrdinals) {
+        this.values = values;
+        this.sortedOrdinals = sortedOrdinals;
+        sortedValues = new int[sortedOrdinals.length];
+        for (int i = 0; i < sortedOrdinals.length; i++) {
+            sortedValues[i] = values[sortedOrdinals[i]];
+        }
+    }
+
+    /**
+     * Saves the values and their sorted order to a snapshot
+     *
+     * @param writer the snapshot writer
+     * @throws IOException if the index can't be written
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInts(values);
+        writer.writeInts(sortedOrdinals);
+    }
+
+    /**
+     * Reads an index saved with writeTo, without sorting the values again
+     *
+     * @param reader the snapshot reader
+     * @return the index
+     */
+    public static RangeIndex readFrom(final SnapshotReader reader) {
+        int[] values = reader.readInts();
+        return new RangeIndex(values, reader.readInts());
+    }
+
+    /**
+     * @param lessThan true for values lower than the bound, false for greater ones
+     * @param bound    the bound, excluded
+     * @return how many values are in the range
+     */
+    public int count(final boolean lessThan, final int bound) {
+        return lessThan ? firstGreaterOrEqual(bound)
+                : sortedValues.length - firstGreaterOrEqual(bound + 1L);
+    }
+
+    /**
+     * @param lessThan true for values lower than the bound, false for greater ones
+     * @param bound    the bound, excluded
+     * @return ordinals of the values in the range, in library order
+     */
+    public int[] find(final boolean lessThan, final int bound) {
+        int[] ordinals = lessThan
+                ? Arrays.copyOfRange(sortedOrdinals, 0, firstGreaterOrEqual(bound))
+                : Arrays.copyOfRange(sortedOrdinals, firstGreaterOrEqual(bound + 1L),
+                sortedOrdinals.length);
+        Arrays.sort(ordinals);
+        return ordinals;
+    }
+
+    /**
+     * @param ordinal  position in the library
+     * @param lessThan true for values lower than the bound, false for greater ones
+     * @param bound    the bound, excluded
+     * @return true if the value of the given ordinal is in the range
+     */
+    public boolean matches(final int ordinal, final boolean lessThan, final int bound) {
+        return lessThan ? values[ordinal] < bound : values[ordinal] > bound;
+    }
+
+    private int firstGreaterOrEqual(final long bound) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] < bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
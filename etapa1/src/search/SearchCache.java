@@ -0,0 +1,85 @@
+package search;
+
+import fileio.input.Filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache for the search results. The entries are keyed by the search type,
+ * the normalized filters, the user (for playlist searches, since every user also sees
+ * their private playlists) and the version of the searched data, so changing the data
+ * makes the old entries unreachable until they are evicted.
+ */
+public final class SearchCache {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<List<Object>, List<?>> entries;
+    private long hits;
+    private long misses;
+
+    public SearchCache(final int capacity) {
+        entries = new LinkedHashMap<>(capacity, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<List<Object>, List<?>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached results of a search or runs it and caches its results
+     *
+     * @param type     search type (song, playlist or podcast)
+     * @param filters  search filters
+     * @param username the user that searches, or null if the results don't depend on it
+     * @param version  version of the searched data
+     * @param search   runs the search
+     * @param <T>      the type of the results
+     * @return unmodifiable list of results, shared by all the equal searches
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> List<T> get(final String type, final Filters filters,
+                                        final String username, final long version,
+                                        final Supplier<List<T>> search) {
+        List<Object> key = Arrays.asList(type, filters.getName(), filters.getOwner(),
+                filters.getAlbum(), filters.getArtist(), filters.getLyrics(),
+                SongIndex.foldCase(filters.getGenre()), normalizeTags(filters.getTags()),
+                filters.getReleaseYear(), filters.getDuration(), username, version);
+
+        List<T> results = (List<T>) entries.get(key);
+        if (results != null) {
+            hits++;
+            return results;
+        }
+        misses++;
+        results = Collections.unmodifiableList(search.get());
+        entries.put(key, results);
+        return results;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * A song must have all the given tags, so their order and duplicates don't matter
+     */
+    private static List<String> normalizeTags(final List<String> tags) {
+        if (tags == null) {
+            return null;
+        }
+        return new ArrayList<>(new TreeSet<>(tags));
+    }
+}
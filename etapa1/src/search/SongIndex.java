@@ -0,0 +1,258 @@
+package search;
+
+import fileio.input.SongInput;
+import snapshot.SnapshotReader;
+import snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index over the library songs. For every album, artist, genre and tag
+ * it keeps the ordinals (positions in the library list) of the songs that have it,
+ * sorted ascending, so the search results can be obtained by intersecting them.
+ */
+public final class SongIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final int size;
+    private final PrefixIndex names;
+    private final LyricsIndex lyrics;
+    private final RangeIndex releaseYears;
+    private final RangeIndex durations;
+    private final Map<String, int[]> albums;
+    private final Map<String, int[]> artists;
+    private final Map<String, int[]> genres;
+    private final Map<String, int[]> tags;
+
+    public SongIndex(final List<? extends SongInput> songs) {
+        Map<String, List<Integer>> albumPostings = new HashMap<>();
+        Map<String, List<Integer>> artistPostings = new HashMap<>();
+        Map<String, List<Integer>> genrePostings = new HashMap<>();
+        Map<String, List<Integer>> tagPostings = new HashMap<>();
+        List<String> songNames = new ArrayList<>(songs.size());
+        int[] years = new int[songs.size()];
+        int[] songDurations = new int[songs.size()];
+
+        // The songs are visited in library order, so every posting list is already sorted.
+        for (int ordinal = 0; ordinal < songs.size(); ordinal++) {
+            SongInput song = songs.get(ordinal);
+            songNames.add(song.getName());
+            years[ordinal] = song.getReleaseYear();
+            songDurations[ordinal] = song.getDuration();
+            addPosting(albumPostings, song.getAlbum(), ordinal);
+            addPosting(artistPostings, song.getArtist(), ordinal);
+            addPosting(genrePostings, foldCase(song.getGenre()), ordinal);
+            if (song.getTags() != null) {
+                for (String tag : song.getTags()) {
+                    List<Integer> postings = tagPostings.get(tag);
+                    // A song that repeats a tag must appear only once in its posting list.
+                    if (postings == null || postings.get(postings.size() - 1) != ordinal) {
+                        addPosting(tagPostings, tag, ordinal);
+                    }
+                }
+            }
+        }
+
+        size = songs.size();
+        names = new PrefixIndex(songNames);
+        lyrics = new LyricsIndex(songs);
+        releaseYears = new RangeIndex(years);
+        durations = new RangeIndex(songDurations);
+        albums = toArrays(albumPostings);
+        artists = toArrays(artistPostings);
+        genres = toArrays(genrePostings);
+        tags = toArrays(tagPostings);
+    }
+
+    private SongIndex(final SnapshotReader reader) {
+        size = reader.readInt();
+        names = PrefixIndex.readFrom(reader);
+        lyrics = LyricsIndex.readFrom(reader);
+        releaseYears = RangeIndex.readFrom(reader);
+        durations = RangeIndex.readFrom(reader);
+        albums = readPostings(reader);
+        artists = readPostings(reader);
+        genres = readPostings(reader);
+        tags = readPostings(reader);
+    }
+
+    /**
+     * Saves the whole index to a snapshot
+     *
+     * @param writer the snapshot writer
+     * @throws IOException if the index can't be written
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInt(size);
+        names.writeTo(writer);
+        lyrics.writeTo(writer);
+        releaseYears.writeTo(writer);
+        durations.writeTo(writer);
+        writePostings(writer, albums);
+        writePostings(writer, artists);
+        writePostings(writer, genres);
+        writePostings(writer, tags);
+    }
+
+    /**
+     * Reads an index saved with writeTo, without visiting the songs again
+     *
+     * @param reader the snapshot reader
+     * @return the index
+     */
+    public static SongIndex readFrom(final SnapshotReader reader) {
+        return new SongIndex(reader);
+    }
+
+    /**
+     * @return the number of indexed songs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the index over the song names
+     */
+    public PrefixIndex getNames() {
+        return names;
+    }
+
+    /**
+     * @return the index over the song lyrics
+     */
+    public LyricsIndex getLyrics() {
+        return lyrics;
+    }
+
+    /**
+     * @return the index over the release years
+     */
+    public RangeIndex getReleaseYears() {
+        return releaseYears;
+    }
+
+    /**
+     * @return the index over the song durations
+     */
+    public RangeIndex getDurations() {
+        return durations;
+    }
+
+    /**
+     * @param album album name (case-sensitive)
+     * @return ordinals of the songs from the given album
+     */
+    public int[] getAlbumPostings(final String album) {
+        return albums.getOrDefault(album, EMPTY);
+    }
+
+    /**
+     * @param artist artist name (case-sensitive)
+     * @return ordinals of the songs of the given artist
+     */
+    public int[] getArtistPostings(final String artist) {
+        return artists.getOrDefault(artist, EMPTY);
+    }
+
+    /**
+     * @param genre genre name, compared ignoring the case
+     * @return ordinals of the songs with the given genre
+     */
+    public int[] getGenrePostings(final String genre) {
+        return genres.getOrDefault(foldCase(genre), EMPTY);
+    }
+
+    /**
+     * @param tag tag name (case-sensitive)
+     * @return ordinals of the songs that have the given tag
+     */
+    public int[] getTagPostings(final String tag) {
+        return tags.getOrDefault(tag, EMPTY);
+    }
+
+    /**
+     * Intersects the given posting lists, starting with the smallest one
+     *
+     * @param postings sorted posting lists
+     * @return sorted ordinals present in every list
+     */
+    public static int[] intersect(final List<int[]> postings) {
+        List<int[]> sorted = new ArrayList<>(postings);
+        sorted.sort((o1, o2) -> Integer.compare(o1.length, o2.length));
+
+        int[] result = sorted.get(0);
+        for (int i = 1; i < sorted.size() && result.length > 0; i++) {
+            int[] other = sorted.get(i);
+            int[] common = new int[result.length];
+            int count = 0;
+            // The current result is the smaller list, so look its elements up in the other one.
+            for (int ordinal : result) {
+                if (Arrays.binarySearch(other, ordinal) >= 0) {
+                    common[count++] = ordinal;
+                }
+            }
+            result = Arrays.copyOf(common, count);
+        }
+        return result;
+    }
+
+    /**
+     * Folds the case of a string so that two strings have the same folded form
+     * exactly when String.equalsIgnoreCase considers them equal
+     *
+     * @param value the string
+     * @return folded string
+     */
+    public static String foldCase(final String value) {
+        if (value == null) {
+            return null;
+        }
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static void addPosting(final Map<String, List<Integer>> postings,
+                                   final String key, final int ordinal) {
+        postings.computeIfAbsent(key, k -> new ArrayList<>()).add(ordinal);
+    }
+
+    private static void writePostings(final SnapshotWriter writer,
+                                      final Map<String, int[]> postings) throws IOException {
+        List<String> keys = new ArrayList<>(postings.keySet());
+        writer.writeStrings(keys);
+        for (String key : keys) {
+            writer.writeInts(postings.get(key));
+        }
+    }
+
+    private static Map<String, int[]> readPostings(final SnapshotReader reader) {
+        List<String> keys = reader.readStrings();
+        Map<String, int[]> postings = new HashMap<>(keys.size() * 2);
+        for (String key : keys) {
+            postings.put(key, reader.readInts());
+        }
+        return postings;
+    }
+
+    private static Map<String, int[]> toArrays(final Map<String, List<Integer>> postings) {
+        Map<String, int[]> arrays = new HashMap<>(postings.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+            int[] ordinals = new int[entry.getValue().size()];
+            for (int i = 0; i < ordinals.length; i++) {
+                ordinals[i] = entry.getValue().get(i);
+            }
+            arrays.put(entry.getKey(), ordinals);
+        }
+        return arrays;
+    }
+}
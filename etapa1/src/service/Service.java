@@ -8,6 +8,12 @@ import fileio.input.CommandInput;
 import fileio.input.Filters;
 import music.Player;
 import music.Playlist;
+import music.PlaylistRegistry;
+import music.SourceType;
+import search.PrefixIndex;
+import search.QueryPlanner;
+import search.SongIndex;
+import search.Leaderboard;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,156 +30,17 @@ public final class Service {
      *
      * @param filter given filter
      * @param songs  All library songs
+     * @param index  Index built over the library songs
      * @return List of returned results
      */
     public static List<SongInputExtended>
-    searchSongs(final Filters filter, final List<SongInputExtended> songs) {
+    searchSongs(final Filters filter, final List<SongInputExtended> songs,
+                final SongIndex index) {
         List<SongInputExtended> resultSongs = new ArrayList<>();
-        // A flag to check if any filtering has already been done.
-        boolean alreadyFiltered = false;
-        // If a name filter is provided, filter songs by name.
-        if (filter.getName() != null) {
-            for (SongInputExtended songInput : songs) {
-                alreadyFiltered = true;
-                // Check if song name starts with the specified filter name.
-                if (songInput.getName().startsWith(filter.getName())) {
-                    resultSongs.add(songInput);
-                }
-            }
-        }
-        // If an album filter is provided, filter songs by album.
-        if (filter.getAlbum() != null) {
-            if (alreadyFiltered) {
-                // Filter within the already filtered results.
-                List<SongInputExtended> albumSongs = new ArrayList<>();
-                for (SongInputExtended songInput : resultSongs) {
-                    if (songInput.getAlbum().equals(filter.getAlbum())) {
-                        albumSongs.add(songInput);
-                    }
-                }
-                resultSongs = albumSongs;
-            } else {
-                // Filter from the original song list.
-                alreadyFiltered = true;
-                for (SongInputExtended songInput : songs) {
-                    if (songInput.getAlbum().equals(filter.getAlbum())) {
-                        resultSongs.add(songInput);
-                    }
-                }
-            }
-        }
-        if (filter.getArtist() != null) {
-            if (alreadyFiltered) {
-                // Filter within the already filtered results.
-                List<SongInputExtended> albumSongs = new ArrayList<>();
-                for (SongInputExtended songInput : resultSongs) {
-                    if (songInput.getArtist().equals(filter.getArtist())) {
-                        albumSongs.add(songInput);
-                    }
-                }
-                resultSongs = albumSongs;
-            } else {
-                alreadyFiltered = true;
-                // Filter from the original song list.
-                for (SongInputExtended songInput : songs) {
-                    if (songInput.getArtist().equals(filter.getArtist())) {
-                        resultSongs.add(songInput);
-                    }
-                }
-            }
-        }
-        if (filter.getLyrics() != null) {
-            if (alreadyFiltered) {
-                List<SongInputExtended> albumSongs = new ArrayList<>();
-                for (SongInputExtended songInput : resultSongs) {
-                    if (songInput.getLyrics().contains(filter.getLyrics())) {
-                        albumSongs.add(songInput);
-                    }
-                }
-                resultSongs = albumSongs;
-            } else {
-                alreadyFiltered = true;
-                for (SongInputExtended songInput : songs) {
-                    if (songInput.getLyrics().toLowerCase()
-                            .contains(filter.getLyrics().toLowerCase())) {
-                        resultSongs.add(songInput);
-                    }
-                }
-            }
-        }
-        if (filter.getGenre() != null) {
-            if (alreadyFiltered) {
-                List<SongInputExtended> albumSongs = new ArrayList<>();
-                for (SongInputExtended songInput : resultSongs) {
-                    if (songInput.getGenre().equalsIgnoreCase(filter.getGenre())) {
-                        albumSongs.add(songInput);
-                    }
-                }
-                resultSongs = albumSongs;
-            } else {
-                alreadyFiltered = true;
-                for (SongInputExtended songInput : songs) {
-                    if (songInput.getGenre().equalsIgnoreCase(filter.getGenre())) {
-                        resultSongs.add(songInput);
-                    }
-                }
-            }
-        }
-
-        if (filter.getTags() != null) {
-            if (alreadyFiltered) {
-                List<SongInputExtended> albumSongs = new ArrayList<>();
-                for (SongInputExtended songInput : resultSongs) {
-                    if (songInput.getTags().containsAll(filter.getTags())) {
-                        albumSongs.add(songInput);
-                    }
-                }
-                resultSongs = albumSongs;
-            } else {
-                alreadyFiltered = true;
-                for (SongInputExtended songInput : songs) {
-                    if (songInput.getTags().containsAll(filter.getTags())) {
-                        resultSongs.add(songInput);
-                    }
-                }
-            }
-        }
-        if (filter.getReleaseYear() != null) {
-            char compareString = filter.getReleaseYear().charAt(0);
-            String yearString = filter.getReleaseYear().substring(1);
-            int yearInt = Integer.parseInt(yearString);
-
-            if (alreadyFiltered) {
-                List<SongInputExtended> albumSongs = new ArrayList<>();
-                for (SongInputExtended songInput : resultSongs) {
-                    if (compareString == '<') {
-                        if (songInput.getReleaseYear() < yearInt) {
-                            albumSongs.add(songInput);
-                        }
-                    } else {
-                        if (songInput.getReleaseYear() > yearInt) {
-                            albumSongs.add(songInput);
-                        }
-                    }
-                }
-                resultSongs = albumSongs;
-            } else {
-                for (SongInputExtended songInput : songs) {
-                    if (compareString == '<') {
-                        if (songInput.getReleaseYear() < yearInt) {
-                            resultSongs.add(songInput);
-                        }
-                    } else {
-                        if (songInput.getReleaseYear() > yearInt) {
-                            resultSongs.add(songInput);
-                        }
-                    }
-                }
-            }
-        }
-        // Limit the results to a maximum number (MAX_RESULTS_LIST).
-        if (resultSongs.size() > MAX_RESULTS_LIST) {
-            return resultSongs.subList(0, MAX_RESULTS_LIST);
+        // The planner drives the search from the most selective filter and
+        // returns the first matching songs in library order.
+        for (int ordinal : QueryPlanner.search(index, filter, MAX_RESULTS_LIST)) {
+            resultSongs.add(songs.get(ordinal));
         }
         return resultSongs;
     }
@@ -181,57 +48,42 @@ public final class Service {
     /**
      * Method used to search podcasts
      *
+     * @param filter given filter
+     * @param podcasts All library podcasts
+     * @param names Index built over the podcast names
      * @return Podcast list
      */
     public static List<PodcastInputExtended>
-    searchPodcasts(final Filters filter, final List<PodcastInputExtended> podcasts) {
+    searchPodcasts(final Filters filter, final List<PodcastInputExtended> podcasts,
+                   final PrefixIndex names) {
 
         // Initialize a list to store podcasts that match the filter criteria.
         List<PodcastInputExtended> resultPodcasts = new ArrayList<>();
 
-        // A flag to check if any filtering has already been done.
-        boolean alreadyFiltered = false;
-
-        // If a name filter is provided, filter podcasts by name.
-        if (filter.getName() != null) {
-            for (PodcastInputExtended podcastInput : podcasts) {
-                // Mark that filtering has been applied.
-                alreadyFiltered = true;
-                // Check if the podcast name starts with the specified filter name.
-                if (podcastInput.getName().startsWith(filter.getName())) {
-                    resultPodcasts.add(podcastInput);
-                }
-            }
+        // Without any filter the search returns nothing.
+        if (filter.getName() == null && filter.getOwner() == null) {
+            return resultPodcasts;
         }
 
-        // If an owner filter is provided, filter podcasts by owner.
-        if (filter.getOwner() != null) {
-            if (alreadyFiltered) {
-                // Filter within the already filtered results.
-                List<PodcastInputExtended> ownerPodcasts = new ArrayList<>();
-                for (PodcastInputExtended podcastInput : resultPodcasts) {
-                    if (podcastInput.getOwner().equals(filter.getOwner())) {
-                        ownerPodcasts.add(podcastInput);
-                    }
-                }
-                // Update the resultPodcasts with the newly filtered list.
-                resultPodcasts = ownerPodcasts;
-            } else {
-                // Filter from the original podcast list.
-                for (PodcastInputExtended podcastInput : podcasts) {
-                    if (podcastInput.getOwner().equals(filter.getOwner())) {
-                        resultPodcasts.add(podcastInput);
-                    }
-                }
+        // If a name filter is provided, only the podcasts found by the name index are checked.
+        int[] candidates = null;
+        if (filter.getName() != null) {
+            candidates = filter.getOwner() == null
+                    ? names.findFirst(filter.getName(), MAX_RESULTS_LIST)
+                    : names.find(filter.getName());
+        }
+        int candidatesCount = candidates == null ? podcasts.size() : candidates.length;
+
+        // Stop as soon as MAX_RESULTS_LIST podcasts were found.
+        for (int i = 0; i < candidatesCount && resultPodcasts.size() < MAX_RESULTS_LIST; i++) {
+            PodcastInputExtended podcastInput =
+                    podcasts.get(candidates == null ? i : candidates[i]);
+            // If an owner filter is provided, filter podcasts by owner.
+            if (filter.getOwner() == null || podcastInput.getOwner().equals(filter.getOwner())) {
+                resultPodcasts.add(podcastInput);
             }
         }
 
-        // Limit the number of results to a maximum defined by MAX_RESULTS_LIST.
-        if (resultPodcasts.size() > MAX_RESULTS_LIST) {
-            // Return only the first MAX_RESULTS_LIST elements.
-            return resultPodcasts.subList(0, MAX_RESULTS_LIST);
-        }
-
         // Return the final list of filtered podcasts.
         return resultPodcasts;
     }
@@ -239,67 +91,17 @@ public final class Service {
     /**
      * Method used to search playlists
      *
+     * @param username the user that searches
+     * @param filter given filter
+     * @param playlists all the created playlists
      * @return Playlist list
      */
     public static List<Playlist> searchPlaylists(final String username,
                                                  final Filters filter,
-                                                 final List<Playlist> playlists) {
-
-        // Initialize a list to store the playlists that match the filter criteria.
-        List<Playlist> resultPlaylists = new ArrayList<>();
-
-        // A flag to check if any filtering has already been done.
-        boolean alreadyFiltered = false;
-
-        // If a name filter is provided, filter playlists by name.
-        if (filter.getName() != null) {
-            for (Playlist playlist : playlists) {
-                // Check if the playlist is owned by the user or is a public playlist.
-                if (playlist.getOwner().equals(username) || !playlist.isPrivatePlaylist()) {
-                    // Mark that filtering has been applied.
-                    alreadyFiltered = true;
-                    // Check if the playlist name starts with the specified filter name.
-                    if (playlist.getName().startsWith(filter.getName())) {
-                        resultPlaylists.add(playlist);
-                    }
-                }
-            }
-        }
-
-        // If an owner filter is provided, further filter playlists by owner.
-        if (filter.getOwner() != null) {
-            if (alreadyFiltered) {
-                // Filter within the already filtered results.
-                List<Playlist> ownerPlaylists = new ArrayList<>();
-                for (Playlist playlist : resultPlaylists) {
-                    if (playlist.getOwner().equals(filter.getOwner())
-                            && (playlist.getOwner().equals(username)
-                            || !playlist.isPrivatePlaylist())) {
-                        ownerPlaylists.add(playlist);
-                    }
-                }
-                // Update the resultPlaylists with the newly filtered list.
-                resultPlaylists = ownerPlaylists;
-            } else {
-                // Filter from the original playlist list.
-                for (Playlist playlist : playlists) {
-                    if (playlist.getOwner().equals(filter.getOwner())
-                            && (playlist.getOwner().equals(username)
-                            || !playlist.isPrivatePlaylist())) {
-                        resultPlaylists.add(playlist);
-                    }
-                }
-            }
-        }
-
-        // Limit the number of results to a maximum defined by MAX_RESULTS_LIST.
-        if (resultPlaylists.size() > MAX_RESULTS_LIST) {
-            // Return only the first MAX_RESULTS_LIST elements.
-            return resultPlaylists.subList(0, MAX_RESULTS_LIST);
-        }
-
-        // Return the final list of filtered playlists.
-        return resultPlaylists;
+                                                 final PlaylistRegistry playlists) {
+        // The registry only looks at the playlists of the owner or with a matching name,
+        // and keeps the ones the user can see, in creation order.
+        return playlists.search(username, filter.getName(), filter.getOwner(), MAX_RESULTS_LIST);
     }
 
     /**
@@ -331,7 +133,7 @@ public final class Service {
         }
 
         // Check if the last search type was 'podcast'.
-        if (user.getTypeSearched().equals("podcast")) {
+        if (user.getTypeSearched() == SourceType.PODCAST) {
             // Ensure that the podcast search results are not null.
             assert user.getSearchPodcastsResults() != null;
 
@@ -346,16 +148,14 @@ public final class Service {
             // Mark the selection as made.
             user.setSelected(true);
             // Initialize the player for the podcast type.
-            player = new Player("podcast");
-            // Set the selected podcast in the player.
-            player.setPodcastInputExtended(user.getSearchPodcastsResults().get(index));
+            player = new Player(user.getSearchPodcastsResults().get(index));
             // Update the user's player setting with the newly created player.
             user.setPlayer(player);
 
             // Return a success message with the name of the selected podcast.
             return "Successfully selected "
                     + user.getSearchPodcastsResults().get(index).getName() + ".";
-        } else if (user.getTypeSearched().equals("song")) {
+        } else if (user.getTypeSearched() == SourceType.SONG) {
             // Similar handling as podcasts but for songs.
             assert user.getSearchSongResults() != null;
             if (index >= user.getSearchSongResults().size()) {
@@ -363,8 +163,7 @@ public final class Service {
                 return "The selected ID is too high.";
             }
             user.setSelected(true);
-            player = new Player("song");
-            player.setSongInputExtended(user.getSearchSongResults().get(index));
+            player = new Player(user.getSearchSongResults().get(index));
             user.setPlayer(player);
             return "Successfully selected "
                     + user.getSearchSongResults().get(index).getName() + ".";
@@ -375,8 +174,7 @@ public final class Service {
                 return "The selected ID is too high.";
             }
             user.setSelected(true);
-            player = new Player("playlist");
-            player.setPlaylist(user.getSearchPlaylistsResults().get(index));
+            player = new Player(user.getSearchPlaylistsResults().get(index));
             user.setPlayer(player);
             return "Successfully selected "
                     + user.getSearchPlaylistsResults().get(index).getName() + ".";
@@ -464,18 +262,17 @@ public final class Service {
     /**
      * Method used to create a playlist for a user
      *
-     * @param playlists the list of the user's playlists
+     * @param playlists all the created playlists
      * @param command the command which we get the name of the playlist from
      * @return String message
      */
     public static String
-    createPlaylist(final List<Playlist> playlists, final CommandInput command) {
+    createPlaylist(final PlaylistRegistry playlists, final CommandInput command) {
 
-        // Iterate through the existing playlists.
-        for (Playlist playlist : playlists) {
-            // Check if there is already a playlist with the same name by the same user.
-            if (playlist.getName().equals(command.getPlaylistName())
-                    && playlist.getOwner().equals(command.getUsername())) {
+        // Iterate through the existing playlists of the user.
+        for (Playlist playlist : playlists.getOwnerPlaylists(command.getUsername())) {
+            // Check if there is already a playlist with the same name.
+            if (playlist.getName().equals(command.getPlaylistName())) {
                 // If such a playlist exists, return an error message.
                 return "A playlist with the same name already exists.";
             }
@@ -494,11 +291,11 @@ public final class Service {
      *
      * @param index the playlistId
      * @param user the user
-     * @param playlists the user's list of playlists
+     * @param playlists all the created playlists
      * @return String message
      */
     public static String
-    addRemove(final int index, final UserDetails user, final List<Playlist> playlists) {
+    addRemove(final int index, final UserDetails user, final PlaylistRegistry playlists) {
         // Retrieve the player from the user details.
         Player player = user.getPlayer();
 
@@ -509,7 +306,7 @@ public final class Service {
         }
 
         // Check if the loaded source is a song.
-        if (!player.getPlayingType().equals("song")) {
+        if (player.getSourceType() != SourceType.SONG) {
             // Return an error message if the loaded source is not a song.
             return "The loaded source is not a song.";
         }
@@ -544,25 +341,13 @@ public final class Service {
      * Method used to get user's playlists
      *
      * @param username the name of the user
-     * @param playlists the playlists of the user
+     * @param playlists all the created playlists
      * @return The list of user's playlists
      */
     public static List<Playlist>
-    retrieveUserPlaylists(final String username, final List<Playlist> playlists) {
-        // Create a new list to hold playlists that belong to the specified user.
-        List<Playlist> userPlayLists = new ArrayList<>();
-
-        // Iterate through the list of all playlists.
-        for (Playlist playlist : playlists) {
-            // Check if the current playlist is owned by the user.
-            if (playlist.getOwner().equals(username)) {
-                // If the playlist is owned by the user, add it to the user's playlist list.
-                userPlayLists.add(playlist);
-            }
-        }
-
-        // Return the list of playlists that belong to the user.
-        return userPlayLists;
+    retrieveUserPlaylists(final String username, final PlaylistRegistry playlists) {
+        // The registry keeps the playlists of every user, in creation order.
+        return playlists.getOwnerPlaylists(username);
     }
 
     /**
@@ -606,20 +391,7 @@ public final class Service {
             return "Please load a source before using the shuffle function.";
         }
 
-        // Check if the loaded source is a playlist.
-        if (!user.getPlayer().getPlayingType().equals("playlist")) {
-            // Return an error message if the loaded source is not a playlist.
-            return "The loaded source is not a playlist.";
-        }
-
-        // Check if the playlist has finished playing.
-        user.getPlayer().checkIfFinished(timestamp);
-        if (user.getPlayer().isFinished()) {
-            // If the playlist has finished, return an error message.
-            return "Please load a source before using the shuffle function.";
-        }
-
-        // Shuffle the playlist using the provided seed and return the result.
+        // Only a playlist that hasn't finished yet can be shuffled, which the player checks.
         return user.getPlayer().shuffle(seed, timestamp);
     }
 
@@ -639,13 +411,7 @@ public final class Service {
             return "Please load a source before attempting to forward.";
         }
 
-        // Check if the loaded source is a podcast.
-        if (!user.getPlayer().getPlayingType().equals("podcast")) {
-            // If the source is not a podcast, return an error message.
-            return "The loaded source is not a podcast.";
-        }
-
-        // Execute the forward command on the player.
+        // Execute the forward command on the player, only a podcast can be skipped forward.
         return user.getPlayer().forward(timestamp);
     }
 
@@ -664,13 +430,7 @@ public final class Service {
             return "Please load a source before attempting to backward.";
         }
 
-        // Check if the loaded source is a podcast.
-        if (!user.getPlayer().getPlayingType().equals("podcast")) {
-            // If the source is not a podcast, return an error message.
-            return "The loaded source is not a podcast.";
-        }
-
-        // Execute the backward command on the player.
+        // Execute the backward command on the player, only a podcast can be rewound.
         return user.getPlayer().backward(timestamp);
     }
 
@@ -745,22 +505,13 @@ public final class Service {
         }
 
         // Check if the loaded source is a podcast.
-        if (player.getPlayingType().equals("podcast")) {
+        if (player.getSourceType() == SourceType.PODCAST) {
             // If the source is not a song, return an error message.
             return "Loaded source is not a song.";
         }
 
-        // Initialize a variable to hold the currently playing song.
-        SongInputExtended song;
-
-        // Determine the currently playing song based on the type of content.
-        if (player.getPlayingType().equals("song")) {
-            // If the player is playing a song, get the song details.
-            song = player.getSongInputExtended();
-        } else {
-            // If the player is playing from a playlist, get the current song from the playlist.
-            song = player.getPlayingSongFromPlaylist(timestamp);
-        }
+        // The loaded song or, for a playlist, its current song.
+        SongInputExtended song = player.getPlayingSong(timestamp);
 
         // Check if the player is in repeat mode.
         if (user.getPlayer().getRepeat() == 2) {
@@ -810,55 +561,25 @@ public final class Service {
 
 
     /**
-     * Method that sorts the likes list and retrieve the first maximum 5 elements
+     * Method that retrieves the first maximum 5 songs by likes
+     * @param leaderboard ranking of the library songs, updated on every like
      * @return List results
      */
-    public static List<String> getTop5S(final List<SongInputExtended> likes) {
-        List<SongInputExtended> copy = new ArrayList<>(likes);
-
-        // Sort the copy based on the number of likes each song has received.
-        copy.sort((o1, o2) -> {
-            // In case of a tie in likes, sort by the original order in the library.
-            if (o2.getLikes().compareTo(o1.getLikes()) == 0) {
-                return Integer.compare(likes.indexOf(o1), likes.indexOf(o2));
-            } else {
-                return o2.getLikes().compareTo(o1.getLikes());
-            }
-        });
-
-        // Prepare a list to store the top five song names.
-        List<String> results = new ArrayList<>();
-
-        // Iterate over the sorted list and add up to five song names to the results.
-        for (int i = 0; i < MAX_RESULTS_LIST && i < copy.size(); i++) {
-            results.add(copy.get(i).getName());
-        }
-
-        // Return the list of top five songs.
-        return results;
+    public static List<String> getTop5S(final Leaderboard leaderboard) {
+        // In case of a tie in likes, the leaderboard keeps the original order in the library.
+        return leaderboard.getTop();
     }
 
     /**
-     * Method that sorts the followers list and retrieve the first maximum 5 elements
+     * Method that retrieves the first maximum 5 playlists by followers
+     * @param playlists all the created playlists
      * @return List results
      */
-    public static List<String> getTop5P(final List<Playlist> playlists) {
-        // Sort the list of playlists based on the number of followers each playlist has.
-        playlists.sort((o1, o2) -> o2.getFollowers().compareTo(o1.getFollowers()));
-
-        // Prepare a list to store the top five playlist names.
-        List<String> results = new ArrayList<>();
-
-        // Iterate over the sorted list and add up to five playlist names to the results.
-        for (int i = 0; i < MAX_RESULTS_LIST && i < playlists.size(); i++) {
-            results.add(playlists.get(i).getName());
-        }
-
-        // Return the list of top five playlists.
-        return results;
+    public static List<String> getTop5P(final PlaylistRegistry playlists) {
+        // In case of a tie in followers, the leaderboard keeps the creation order.
+        return playlists.getFollowersLeaderboard().getTop();
     }
 
-
     /**
      * Method called when user wants to follow a playlist
      * @return returned string message
@@ -870,7 +591,7 @@ public final class Service {
         }
 
         // Check if the selected source is a playlist.
-        if (!user.getTypeSearched().equals("playlist")) {
+        if (user.getTypeSearched() != SourceType.PLAYLIST) {
             return "The selected source is not a playlist.";
         }
 
@@ -891,7 +612,8 @@ public final class Service {
      * @return String
      */
     public static String
-    switchVisibility(final int index, final String username, final List<Playlist> playlists) {
+    switchVisibility(final int index, final String username,
+                     final PlaylistRegistry playlists) {
         // Retrieve the user's playlists.
         List<Playlist> userPlaylists = retrieveUserPlaylists(username, playlists);
 
@@ -901,7 +623,7 @@ public final class Service {
         }
 
         // Change the visibility of the specified playlist.
-        userPlaylists.get(index - 1).changeVisibility();
+        playlists.changeVisibility(userPlaylists.get(index - 1));
 
         // Determine the new visibility status.
         String visibility = userPlaylists.get(index - 1).isPrivatePlaylist()
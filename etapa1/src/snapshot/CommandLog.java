@@ -0,0 +1,387 @@
+package snapshot;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of the commands run by a server. Every command is appended as a record
+ * (its length, a CRC32 checksum, its sequence number and the command bytes) before it
+ * changes the state. The records are written and forced to the disk by a background
+ * thread, all the records appended while the previous force was running at once, so
+ * many commands share one fsync. The log is split in segments named after their first
+ * sequence number: a new segment is started when a state snapshot is taken, and the
+ * segments before it are deleted once the snapshot is on the disk.
+ */
+public final class CommandLog implements Closeable {
+    private static final String SEGMENT_PREFIX = "commands-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    /**
+     * Largest command that can be appended, in bytes. A longer length read back from the
+     * log can only come from a record cut while it was written.
+     */
+    public static final int MAX_COMMAND_SIZE = 1 << 20;
+
+    /**
+     * Receives the commands read back from the log
+     */
+    public interface Replay {
+        /**
+         * @param sequence sequence number of the command
+         * @param command  the command bytes, as they were appended
+         * @throws IOException if the command can't be applied
+         */
+        void apply(long sequence, byte[] command) throws IOException;
+    }
+
+    private final File directory;
+    private final CRC32 checksum = new CRC32();
+    private final Thread flusher;
+    // Records appended but not written yet, every null entry starts a new segment,
+    // with the next first sequence number in pendingSegments.
+    private List<ByteBuffer> pending = new ArrayList<>();
+    private List<Long> pendingSegments = new ArrayList<>();
+    private FileChannel segment;
+    private long lastSequence;
+    private long durableSequence;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Opens the log for appending, in a new segment after the last recovered command
+     *
+     * @param directory    directory of the log segments
+     * @param lastSequence sequence number of the last command recovered
+     * @throws IOException if the segment can't be created
+     */
+    public CommandLog(final File directory, final long lastSequence) throws IOException {
+        this.directory = directory;
+        this.lastSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        segment = openSegment(lastSequence + 1);
+        flusher = new Thread(this::flushLoop, "command-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Reads the log and replays the commands after a snapshot. The last segment ends at
+     * its first record that is incomplete or fails its checksum (the server stopped while
+     * writing it, so it was never acknowledged) and is cut there. A segment is forced to the
+     * disk before the next one is started, so an invalid record in an earlier segment means
+     * acknowledged commands were damaged, and the log is not read.
+     *
+     * @param directory        directory of the log segments
+     * @param snapshotSequence sequence number of the last command in the snapshot
+     * @param replay           receives the commands after the snapshot, in order
+     * @return sequence number of the last command in the log (or in the snapshot)
+     * @throws IOException if the log can't be read, an earlier segment is damaged or the
+     * log doesn't continue the snapshot
+     */
+    public static long recover(final File directory, final long snapshotSequence,
+                               final Replay replay) throws IOException {
+        Recovery recovery = new Recovery(snapshotSequence, replay);
+        TreeMap<Long, File> segments = listSegments(directory);
+        for (File file : segments.values()) {
+            boolean last = file.equals(segments.lastEntry().getValue());
+            try (FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long end = recovery.readSegment(channel);
+                if (end >= 0 && !last) {
+                    throw new IOException("The command log segment " + file
+                            + " is damaged at byte " + end);
+                }
+                if (end >= 0) {
+                    channel.truncate(end);
+                    channel.force(true);
+                }
+            }
+        }
+        return recovery.lastSequence;
+    }
+
+    /**
+     * Reads the segments one after another, checking that no command is missing
+     */
+    private static final class Recovery {
+        private final long snapshotSequence;
+        private final Replay replay;
+        private final CRC32 checksum = new CRC32();
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        private long lastSequence;
+
+        private Recovery(final long snapshotSequence, final Replay replay) {
+            this.snapshotSequence = snapshotSequence;
+            this.replay = replay;
+            lastSequence = snapshotSequence;
+        }
+
+        /**
+         * @return the position of the first invalid record, or -1 if the whole segment
+         * is valid
+         */
+        private long readSegment(final FileChannel channel) throws IOException {
+            long position = 0;
+            while (true) {
+                header.clear();
+                if (!readFully(channel, header, position)) {
+                    return channel.size() == position ? -1 : position;
+                }
+                header.flip();
+                int length = header.getInt();
+                int crc = header.getInt();
+                long sequence = header.getLong();
+                if (length < 0 || length > MAX_COMMAND_SIZE) {
+                    return position;
+                }
+                ByteBuffer body = ByteBuffer.allocate(length);
+                if (!readFully(channel, body, position + HEADER_SIZE)) {
+                    return position;
+                }
+                checksum.reset();
+                checksum.update(header.array(), Integer.BYTES + Integer.BYTES, Long.BYTES);
+                checksum.update(body.array());
+                if ((int) checksum.getValue() != crc) {
+                    return position;
+                }
+                // The records up to the snapshot may still be there if the server stopped
+                // before deleting their segment, they are skipped.
+                if (sequence > snapshotSequence) {
+                    if (sequence != lastSequence + 1) {
+                        throw new IOException("Command " + (lastSequence + 1)
+                                + " is missing from the log");
+                    }
+                    replay.apply(sequence, body.array());
+                    lastSequence = sequence;
+                }
+                position += HEADER_SIZE + length;
+            }
+        }
+    }
+
+    private static boolean readFully(final FileChannel channel, final ByteBuffer buffer,
+                                     final long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    /**
+     * Appends a command, it is durable once awaitDurable returns for its sequence number
+     *
+     * @param command the command bytes
+     * @return sequence number of the command
+     * @throws IOException if the log failed or was closed
+     * @throws IllegalArgumentException if the command is longer than MAX_COMMAND_SIZE,
+     * it couldn't be recovered
+     */
+    public synchronized long append(final byte[] command) throws IOException {
+        if (command.length > MAX_COMMAND_SIZE) {
+            throw new IllegalArgumentException("A command can't be longer than "
+                    + MAX_COMMAND_SIZE + " bytes");
+        }
+        checkOpen();
+        long sequence = lastSequence + 1;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + command.length);
+        record.putInt(command.length);
+        record.putInt(0);
+        record.putLong(sequence);
+        record.put(command);
+        checksum.reset();
+        checksum.update(record.array(), Integer.BYTES + Integer.BYTES,
+                Long.BYTES + command.length);
+        record.putInt(Integer.BYTES, (int) checksum.getValue());
+        record.flip();
+        pending.add(record);
+        lastSequence = sequence;
+        notifyAll();
+        return sequence;
+    }
+
+    /**
+     * Starts a new segment with the next command, called when a snapshot is taken
+     */
+    public synchronized void startSegment() {
+        pending.add(null);
+        pendingSegments.add(lastSequence + 1);
+        notifyAll();
+    }
+
+    /**
+     * Deletes the segments that only hold commands before the given one, once a snapshot
+     * with all of them is on the disk
+     *
+     * @param sequence sequence number of the first command after the snapshot
+     * @throws IOException if a segment can't be deleted
+     */
+    public void deleteBefore(final long sequence) throws IOException {
+        for (File file : listSegments(directory).headMap(sequence).values()) {
+            deleteFile(file);
+        }
+    }
+
+    /**
+     * Waits until a command and all the ones before it are on the disk
+     *
+     * @param sequence sequence number of the command
+     * @throws IOException if the log failed or was closed before that
+     */
+    public synchronized void awaitDurable(final long sequence) throws IOException {
+        // Closing the log still writes the appended commands, so only a failure stops this.
+        while (durableSequence < sequence) {
+            if (failure != null) {
+                throw failure;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the command log", e);
+            }
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("The command log is closed");
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<ByteBuffer> records;
+            List<Long> segments;
+            long sequence;
+            synchronized (this) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                records = pending;
+                segments = pendingSegments;
+                pending = new ArrayList<>();
+                pendingSegments = new ArrayList<>();
+                sequence = lastSequence;
+            }
+            try {
+                int nextSegment = 0;
+                for (ByteBuffer record : records) {
+                    if (record == null) {
+                        segment.force(false);
+                        segment.close();
+                        segment = openSegment(segments.get(nextSegment++));
+                        continue;
+                    }
+                    while (record.hasRemaining()) {
+                        segment.write(record);
+                    }
+                }
+                segment.force(false);
+                synchronized (this) {
+                    durableSequence = sequence;
+                    notifyAll();
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private FileChannel openSegment(final long firstSequence) throws IOException {
+        File file = new File(directory, String.format("%s%020d%s", SEGMENT_PREFIX,
+                firstSequence, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        syncDirectory(directory);
+        return channel;
+    }
+
+    /**
+     * @return the segments in the directory, by their first sequence number
+     */
+    private static TreeMap<Long, File> listSegments(final File directory) {
+        TreeMap<Long, File> segments = new TreeMap<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return segments;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length())), file);
+            }
+        }
+        return segments;
+    }
+
+    private static void deleteFile(final File file) throws IOException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Can't delete " + file);
+        }
+    }
+
+    /**
+     * Forces the entries of a directory to the disk, so created or renamed files survive
+     * a crash
+     *
+     * @param directory the directory
+     * @throws IOException if the directory can't be opened
+     */
+    public static void syncDirectory(final File directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.toPath(),
+                StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Writes the appended commands and stops the background thread
+     *
+     * @throws IOException if the last commands can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segment.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
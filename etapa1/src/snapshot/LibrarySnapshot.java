@@ -0,0 +1,228 @@
+package snapshot;
+
+import fileio.extended.PodcastInputExtended;
+import fileio.extended.SongInputExtended;
+import fileio.input.EpisodeInput;
+import fileio.input.LibraryInput;
+import fileio.input.UserInput;
+import search.PrefixIndex;
+import search.SongIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary snapshot of the library. Every song, podcast and user field is saved as a column
+ * (an int array, with the strings as ids in the string table), followed by the search
+ * indexes, so reading a snapshot doesn't parse JSON or build any index. Reading still
+ * creates every song, podcast and user and decodes all their strings, the time saved
+ * is the parsing and the index building.
+ */
+public final class LibrarySnapshot {
+
+    private LibrarySnapshot() {
+    }
+
+    /**
+     * Saves the library and its indexes to a snapshot file
+     *
+     * @param library the library
+     * @param file    the snapshot file
+     * @throws IOException if the file can't be written
+     */
+    public static void write(final LibraryInput library, final File file) throws IOException {
+        SnapshotWriter writer = new SnapshotWriter(SnapshotReader.LIBRARY_MAGIC);
+        writeSongs(writer, library.getSongs());
+        writePodcasts(writer, library.getPodcasts());
+        writeUsers(writer, library.getUsers());
+        library.getSongIndex().writeTo(writer);
+        library.getPodcastNames().writeTo(writer);
+        writer.writeTo(file);
+    }
+
+    /**
+     * Reads a library from a snapshot file, through a memory-mapped buffer
+     *
+     * @param file the snapshot file
+     * @return the library
+     * @throws IOException if the file can't be read or is not a snapshot
+     */
+    public static LibraryInput read(final File file) throws IOException {
+        SnapshotReader reader =
+                new SnapshotReader(SnapshotReader.map(file), SnapshotReader.LIBRARY_MAGIC);
+        ArrayList<SongInputExtended> songs = readSongs(reader);
+        ArrayList<PodcastInputExtended> podcasts = readPodcasts(reader);
+        ArrayList<UserInput> users = readUsers(reader);
+        SongIndex songIndex = SongIndex.readFrom(reader);
+        PrefixIndex podcastNames = PrefixIndex.readFrom(reader);
+        return new LibraryInput(songs, podcasts, users, songIndex, podcastNames);
+    }
+
+    private static void writeSongs(final SnapshotWriter writer,
+                                   final List<SongInputExtended> songs) throws IOException {
+        int size = songs.size();
+        int[] names = new int[size];
+        int[] durations = new int[size];
+        int[] albums = new int[size];
+        int[] lyrics = new int[size];
+        int[] genres = new int[size];
+        int[] releaseYears = new int[size];
+        int[] artists = new int[size];
+        // The tags of all the songs are saved one after another, tagCounts[i] is how many
+        // of them belong to song i, or -1 if the song has no tag list at all.
+        int[] tagCounts = new int[size];
+        List<String> tags = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            SongInputExtended song = songs.get(i);
+            names[i] = writer.stringId(song.getName());
+            durations[i] = song.getDuration();
+            albums[i] = writer.stringId(song.getAlbum());
+            lyrics[i] = writer.stringId(song.getLyrics());
+            genres[i] = writer.stringId(song.getGenre());
+            releaseYears[i] = song.getReleaseYear();
+            artists[i] = writer.stringId(song.getArtist());
+            if (song.getTags() == null) {
+                tagCounts[i] = -1;
+            } else {
+                tagCounts[i] = song.getTags().size();
+                tags.addAll(song.getTags());
+            }
+        }
+        writer.writeInts(names);
+        writer.writeInts(durations);
+        writer.writeInts(albums);
+        writer.writeInts(lyrics);
+        writer.writeInts(genres);
+        writer.writeInts(releaseYears);
+        writer.writeInts(artists);
+        writer.writeInts(tagCounts);
+        writer.writeStrings(tags);
+    }
+
+    private static ArrayList<SongInputExtended> readSongs(final SnapshotReader reader) {
+        int[] names = reader.readInts();
+        int[] durations = reader.readInts();
+        int[] albums = reader.readInts();
+        int[] lyrics = reader.readInts();
+        int[] genres = reader.readInts();
+        int[] releaseYears = reader.readInts();
+        int[] artists = reader.readInts();
+        int[] tagCounts = reader.readInts();
+        List<String> tags = reader.readStrings();
+
+        ArrayList<SongInputExtended> songs = new ArrayList<>(names.length);
+        int tagStart = 0;
+        for (int i = 0; i < names.length; i++) {
+            SongInputExtended song = new SongInputExtended();
+            song.setName(reader.getString(names[i]));
+            song.setDuration(durations[i]);
+            song.setAlbum(reader.getString(albums[i]));
+            if (tagCounts[i] >= 0) {
+                song.setTags(new ArrayList<>(tags.subList(tagStart, tagStart + tagCounts[i])));
+                tagStart += tagCounts[i];
+            }
+            song.setLyrics(reader.getString(lyrics[i]));
+            song.setGenre(reader.getString(genres[i]));
+            song.setReleaseYear(releaseYears[i]);
+            song.setArtist(reader.getString(artists[i]));
+            songs.add(song);
+        }
+        return songs;
+    }
+
+    private static void writePodcasts(final SnapshotWriter writer,
+                                      final List<PodcastInputExtended> podcasts)
+            throws IOException {
+        int size = podcasts.size();
+        int[] names = new int[size];
+        int[] owners = new int[size];
+        // The episodes of podcast i are the ones from episodeOffsets[i] to
+        // episodeOffsets[i + 1] - 1 in the episode columns.
+        int[] episodeOffsets = new int[size + 1];
+        List<EpisodeInput> episodes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            PodcastInputExtended podcast = podcasts.get(i);
+            names[i] = writer.stringId(podcast.getName());
+            owners[i] = writer.stringId(podcast.getOwner());
+            // A podcast without an episode list is saved, and read back, with an empty one.
+            if (podcast.getEpisodes() != null) {
+                episodes.addAll(podcast.getEpisodes());
+            }
+            episodeOffsets[i + 1] = episodes.size();
+        }
+        int[] episodeNames = new int[episodes.size()];
+        int[] episodeDurations = new int[episodes.size()];
+        int[] episodeDescriptions = new int[episodes.size()];
+        for (int i = 0; i < episodes.size(); i++) {
+            episodeNames[i] = writer.stringId(episodes.get(i).getName());
+            episodeDurations[i] = episodes.get(i).getDuration();
+            episodeDescriptions[i] = writer.stringId(episodes.get(i).getDescription());
+        }
+        writer.writeInts(names);
+        writer.writeInts(owners);
+        writer.writeInts(episodeOffsets);
+        writer.writeInts(episodeNames);
+        writer.writeInts(episodeDurations);
+        writer.writeInts(episodeDescriptions);
+    }
+
+    private static ArrayList<PodcastInputExtended> readPodcasts(final SnapshotReader reader) {
+        int[] names = reader.readInts();
+        int[] owners = reader.readInts();
+        int[] episodeOffsets = reader.readInts();
+        int[] episodeNames = reader.readInts();
+        int[] episodeDurations = reader.readInts();
+        int[] episodeDescriptions = reader.readInts();
+
+        ArrayList<PodcastInputExtended> podcasts = new ArrayList<>(names.length);
+        for (int i = 0; i < names.length; i++) {
+            PodcastInputExtended podcast = new PodcastInputExtended();
+            podcast.setName(reader.getString(names[i]));
+            podcast.setOwner(reader.getString(owners[i]));
+            ArrayList<EpisodeInput> episodes = new ArrayList<>();
+            for (int j = episodeOffsets[i]; j < episodeOffsets[i + 1]; j++) {
+                EpisodeInput episode = new EpisodeInput();
+                episode.setName(reader.getString(episodeNames[j]));
+                episode.setDuration(episodeDurations[j]);
+                episode.setDescription(reader.getString(episodeDescriptions[j]));
+                episodes.add(episode);
+            }
+            podcast.setEpisodes(episodes);
+            podcasts.add(podcast);
+        }
+        return podcasts;
+    }
+
+    private static void writeUsers(final SnapshotWriter writer,
+                                   final List<UserInput> users) throws IOException {
+        int[] usernames = new int[users.size()];
+        int[] ages = new int[users.size()];
+        int[] cities = new int[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            usernames[i] = writer.stringId(users.get(i).getUsername());
+            ages[i] = users.get(i).getAge();
+            cities[i] = writer.stringId(users.get(i).getCity());
+        }
+        writer.writeInts(usernames);
+        writer.writeInts(ages);
+        writer.writeInts(cities);
+    }
+
+    private static ArrayList<UserInput> readUsers(final SnapshotReader reader) {
+        int[] usernames = reader.readInts();
+        int[] ages = reader.readInts();
+        int[] cities = reader.readInts();
+
+        ArrayList<UserInput> users = new ArrayList<>(usernames.length);
+        for (int i = 0; i < usernames.length; i++) {
+            UserInput user = new UserInput();
+            user.setUsername(reader.getString(usernames[i]));
+            user.setAge(ages[i]);
+            user.setCity(reader.getString(cities[i]));
+            users.add(user);
+        }
+        return users;
+    }
+}
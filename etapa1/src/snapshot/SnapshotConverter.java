@@ -0,0 +1,30 @@
+package snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fileio.input.LibraryInput;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Converts a library.json file to a binary library snapshot
+ */
+public final class SnapshotConverter {
+
+    private SnapshotConverter() {
+    }
+
+    /**
+     * @param args the library.json file and the snapshot file
+     * @throws IOException if the library can't be read or the snapshot can't be written
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: SnapshotConverter <library.json> <library.bin>");
+            return;
+        }
+        LibraryInput library = new ObjectMapper().readValue(new File(args[0]),
+                LibraryInput.class);
+        LibrarySnapshot.write(library, new File(args[1]));
+    }
+}
@@ -0,0 +1,147 @@
+package snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a snapshot written by a SnapshotWriter from a buffer, usually a memory-mapped
+ * file. Every distinct string is decoded from the table the first time one of its ids
+ * is read, and reused afterwards. A reader that reads every section, as LibrarySnapshot
+ * does, still decodes every string once. A snapshot is at most 2 GB, the largest buffer
+ * a file can be mapped to.
+ */
+public final class SnapshotReader {
+    /**
+     * Magic number of the library snapshots
+     */
+    public static final int LIBRARY_MAGIC = 0x47574C53;
+    /**
+     * Magic number of the server state snapshots
+     */
+    public static final int STATE_MAGIC = 0x47575354;
+    static final int FORMAT_VERSION = 2;
+
+    private final ByteBuffer buffer;
+    private final int[] stringOffsets;
+    private final int stringsStart;
+    private final String[] strings;
+
+    /**
+     * Maps a snapshot file to memory, read-only
+     *
+     * @param file the snapshot file
+     * @return the buffer with the whole snapshot
+     * @throws IOException if the file can't be read or is larger than a snapshot can be
+     */
+    public static MappedByteBuffer map(final File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > SnapshotWriter.MAX_SIZE) {
+                throw new IOException(file + " is larger than a snapshot can be");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Checks the header and reads the string table offsets
+     *
+     * @param buffer buffer with the whole snapshot
+     * @param magic  magic number of the expected kind of snapshot
+     * @throws IOException if the buffer doesn't hold a snapshot of this kind and version
+     */
+    public SnapshotReader(final ByteBuffer buffer, final int magic) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt() != magic) {
+            throw new IOException("Not a snapshot of the expected kind");
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        int count = buffer.getInt();
+        stringOffsets = new int[count + 1];
+        buffer.asIntBuffer().get(stringOffsets);
+        buffer.position(buffer.position() + stringOffsets.length * Integer.BYTES);
+        stringsStart = buffer.position();
+        strings = new String[count];
+        buffer.position(stringsStart + stringOffsets[count]);
+    }
+
+    /**
+     * @return the next int
+     */
+    public int readInt() {
+        return buffer.getInt();
+    }
+
+    /**
+     * @return the next long
+     */
+    public long readLong() {
+        return buffer.getLong();
+    }
+
+    /**
+     * @return the next int array
+     */
+    public int[] readInts() {
+        int[] values = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * @return the next long array
+     */
+    public long[] readLongs() {
+        long[] values = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Long.BYTES);
+        return values;
+    }
+
+    /**
+     * @return the next string
+     */
+    public String readString() {
+        return getString(buffer.getInt());
+    }
+
+    /**
+     * @return the next string array
+     */
+    public List<String> readStrings() {
+        int[] ids = readInts();
+        List<String> values = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            values.add(getString(id));
+        }
+        return values;
+    }
+
+    /**
+     * @param id id of a string in the table
+     * @return the string, decoded the first time it is requested
+     */
+    public String getString(final int id) {
+        if (id == SnapshotWriter.NULL_STRING) {
+            return null;
+        }
+        String value = strings[id];
+        if (value == null) {
+            byte[] bytes = new byte[stringOffsets[id + 1] - stringOffsets[id]];
+            buffer.get(stringsStart + stringOffsets[id], bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+}
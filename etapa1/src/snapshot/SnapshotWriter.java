@@ -0,0 +1,173 @@
+package snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a snapshot file: a header, the table of all the distinct strings and then the
+ * sections, where every string is saved as its id in the table and every column of
+ * numbers as an int array. The header starts with a magic number telling what the
+ * snapshot holds (a library or the state of a server). The sections are kept in memory
+ * until the snapshot is written, and a snapshot is limited to MAX_SIZE bytes, since it
+ * is read back from a single mapped buffer and its string offsets are ints.
+ */
+public final class SnapshotWriter {
+    /**
+     * Id used for null strings
+     */
+    public static final int NULL_STRING = -1;
+    /**
+     * Largest size of a snapshot file, in bytes
+     */
+    public static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    private final int magic;
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(body);
+
+    /**
+     * @param magic magic number of the kind of snapshot, checked by the reader
+     */
+    public SnapshotWriter(final int magic) {
+        this.magic = magic;
+    }
+
+    /**
+     * @param value a string
+     * @return the id of the string in the string table, added to the table if needed
+     */
+    public int stringId(final String value) {
+        if (value == null) {
+            return NULL_STRING;
+        }
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(value, id);
+            strings.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * @param value the written value
+     * @throws IOException if it can't be written
+     */
+    public void writeInt(final int value) throws IOException {
+        reserve(Integer.BYTES);
+        out.writeInt(value);
+    }
+
+    /**
+     * @param values the written values, saved after their number
+     * @throws IOException if they can't be written
+     */
+    public void writeInts(final int[] values) throws IOException {
+        reserve(Integer.BYTES + (long) Integer.BYTES * values.length);
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * @param value the written value
+     * @throws IOException if it can't be written
+     */
+    public void writeLong(final long value) throws IOException {
+        reserve(Long.BYTES);
+        out.writeLong(value);
+    }
+
+    /**
+     * @param values the written values, saved after their number
+     * @throws IOException if they can't be written
+     */
+    public void writeLongs(final long[] values) throws IOException {
+        reserve(Integer.BYTES + (long) Long.BYTES * values.length);
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    /**
+     * @param value the written string, saved as its id
+     * @throws IOException if it can't be written
+     */
+    public void writeString(final String value) throws IOException {
+        reserve(Integer.BYTES);
+        out.writeInt(stringId(value));
+    }
+
+    /**
+     * @param values the written strings, saved as an array of ids
+     * @throws IOException if they can't be written
+     */
+    public void writeStrings(final List<String> values) throws IOException {
+        int[] ids = new int[values.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = stringId(values.get(i));
+        }
+        writeInts(ids);
+    }
+
+    private void reserve(final long bytes) throws IOException {
+        if (body.size() + bytes > MAX_SIZE) {
+            throw new IOException("A snapshot can't be larger than " + MAX_SIZE + " bytes");
+        }
+    }
+
+    /**
+     * Writes the whole snapshot to a file and waits until it reaches the disk
+     *
+     * @param file the snapshot file
+     * @throws IOException if the file can't be written or the snapshot is too large
+     */
+    public void writeTo(final File file) throws IOException {
+        // The header and the string table (the offsets of the strings, then their UTF-8
+        // bytes) come before the sections, so the size is checked before writing.
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        long tableSize = (long) Integer.BYTES * (strings.size() + 1);
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            tableSize += bytes.length;
+        }
+        reserve(Integer.BYTES + Integer.BYTES + Integer.BYTES + tableSize);
+
+        try (FileOutputStream stream = new FileOutputStream(file);
+             DataOutputStream fileOut = new DataOutputStream(
+                     new BufferedOutputStream(stream))) {
+            fileOut.writeInt(magic);
+            fileOut.writeInt(SnapshotReader.FORMAT_VERSION);
+
+            fileOut.writeInt(strings.size());
+            int offset = 0;
+            fileOut.writeInt(offset);
+            for (byte[] bytes : encoded) {
+                offset += bytes.length;
+                fileOut.writeInt(offset);
+            }
+            for (byte[] bytes : encoded) {
+                fileOut.write(bytes);
+            }
+
+            out.flush();
+            body.writeTo(fileOut);
+            fileOut.flush();
+            stream.getFD().sync();
+        }
+    }
+}
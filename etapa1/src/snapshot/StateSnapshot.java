@@ -0,0 +1,271 @@
+package snapshot;
+
+import fileio.extended.PodcastInputExtended;
+import fileio.extended.SongInputExtended;
+import fileio.input.LibraryInput;
+import music.Player;
+import music.Playlist;
+import music.PlaylistRegistry;
+import music.SourceType;
+import user.UserDetails;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Snapshot of the state changed by the commands: the likes of the library songs, the
+ * created playlists and the users with their players. The songs, podcasts and playlists
+ * are saved as their position in the library or in the registry, so the snapshot can only
+ * be restored over the library it was taken with. It also saves the sequence number of
+ * the last command applied, the commands after it are replayed from the command log.
+ */
+public final class StateSnapshot {
+
+    private StateSnapshot() {
+    }
+
+    /**
+     * Encodes the state in memory, so it can be written to a file while the commands go on
+     *
+     * @param sequence  sequence number of the last command applied
+     * @param library   the library
+     * @param playlists the created playlists
+     * @param users     the users, by name
+     * @return the snapshot, ready to be written
+     * @throws IOException if the state can't be encoded
+     */
+    public static SnapshotWriter capture(final long sequence, final LibraryInput library,
+                                         final PlaylistRegistry playlists,
+                                         final Map<String, UserDetails> users)
+            throws IOException {
+        SnapshotWriter writer = new SnapshotWriter(SnapshotReader.STATE_MAGIC);
+        writer.writeLong(sequence);
+        writer.writeInt(library.getSongs().size());
+        writer.writeInt(library.getPodcasts().size());
+
+        int[] likes = new int[library.getSongs().size()];
+        for (int i = 0; i < likes.length; i++) {
+            likes[i] = library.getSongs().get(i).getLikes();
+        }
+        writer.writeInts(likes);
+
+        writePlaylists(writer, playlists.getPlaylists());
+
+        Map<PodcastInputExtended, Integer> podcastIds = new IdentityHashMap<>();
+        for (int i = 0; i < library.getPodcasts().size(); i++) {
+            podcastIds.put(library.getPodcasts().get(i), i);
+        }
+        writer.writeInt(users.size());
+        for (UserDetails user : users.values()) {
+            writeUser(writer, user, podcastIds::get);
+        }
+        return writer;
+    }
+
+    /**
+     * Restores a snapshot over a library in its initial state and an empty registry
+     *
+     * @param file      the snapshot file
+     * @param library   the library the snapshot was taken with
+     * @param playlists the registry the playlists are added to
+     * @param users     the map the users are added to
+     * @return sequence number of the last command applied before the snapshot
+     * @throws IOException if the file can't be read or was taken with another library
+     */
+    public static long read(final File file, final LibraryInput library,
+                            final PlaylistRegistry playlists,
+                            final Map<String, UserDetails> users) throws IOException {
+        SnapshotReader reader =
+                new SnapshotReader(SnapshotReader.map(file), SnapshotReader.STATE_MAGIC);
+        long sequence = reader.readLong();
+        if (reader.readInt() != library.getSongs().size()
+                || reader.readInt() != library.getPodcasts().size()) {
+            throw new IOException("The state snapshot was taken with another library");
+        }
+
+        int[] likes = reader.readInts();
+        for (int i = 0; i < likes.length; i++) {
+            library.getSongs().get(i).setLikes(likes[i]);
+        }
+
+        readPlaylists(reader, library.getSongs(), playlists);
+
+        int count = reader.readInt();
+        for (int i = 0; i < count; i++) {
+            UserDetails user = readUser(reader, library, playlists);
+            users.put(user.getUsername(), user);
+        }
+        return sequence;
+    }
+
+    private static void writePlaylists(final SnapshotWriter writer,
+                                       final List<Playlist> playlists) throws IOException {
+        // The songs of all the playlists are saved one after another,
+        // songCounts[i] is how many of them belong to playlist i.
+        int size = playlists.size();
+        int[] names = new int[size];
+        int[] owners = new int[size];
+        int[] privates = new int[size];
+        int[] songCounts = new int[size];
+        List<SongInputExtended> songs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Playlist playlist = playlists.get(i);
+            names[i] = writer.stringId(playlist.getName());
+            owners[i] = writer.stringId(playlist.getOwner());
+            privates[i] = playlist.isPrivatePlaylist() ? 1 : 0;
+            songCounts[i] = playlist.getSongs().size();
+            songs.addAll(playlist.getSongs());
+        }
+        writer.writeInts(names);
+        writer.writeInts(owners);
+        writer.writeInts(privates);
+        writer.writeInts(songCounts);
+        writer.writeInts(toOrdinals(songs));
+    }
+
+    private static void readPlaylists(final SnapshotReader reader,
+                                      final List<SongInputExtended> librarySongs,
+                                      final PlaylistRegistry playlists) {
+        int[] names = reader.readInts();
+        int[] owners = reader.readInts();
+        int[] privates = reader.readInts();
+        int[] songCounts = reader.readInts();
+        int[] songs = reader.readInts();
+        int next = 0;
+        for (int i = 0; i < names.length; i++) {
+            Playlist playlist = new Playlist(reader.getString(names[i]),
+                    reader.getString(owners[i]));
+            List<SongInputExtended> playlistSongs = new ArrayList<>(songCounts[i]);
+            for (int j = 0; j < songCounts[i]; j++) {
+                playlistSongs.add(librarySongs.get(songs[next++]));
+            }
+            playlist.setSongs(playlistSongs);
+            playlists.add(playlist);
+            if (privates[i] != 0) {
+                playlists.changeVisibility(playlist);
+            }
+        }
+    }
+
+    private static void writeUser(final SnapshotWriter writer, final UserDetails user,
+                                  final ToIntFunction<PodcastInputExtended> podcastIds)
+            throws IOException {
+        writer.writeString(user.getUsername());
+        writer.writeString(user.getLastCommand());
+        writer.writeInt(user.getTypeSearched() == null ? -1 : user.getTypeSearched().ordinal());
+        writer.writeInt(user.isSelected() ? 1 : 0);
+        writer.writeInts(toOrdinals(user.getLikedSongs()));
+        writer.writeInts(toCreationIndexes(user.getFollowedPlaylists()));
+
+        // The search results are null until the first search of their type.
+        writeOptional(writer, user.getSearchSongResults() == null ? null
+                : toOrdinals(user.getSearchSongResults()));
+        writeOptional(writer, user.getSearchPodcastsResults() == null ? null
+                : toPodcastIds(user.getSearchPodcastsResults(), podcastIds));
+        writeOptional(writer, user.getSearchPlaylistsResults() == null ? null
+                : toCreationIndexes(user.getSearchPlaylistsResults()));
+
+        List<PodcastInputExtended> played =
+                new ArrayList<>(user.getAlreadyPlayedPodcasts().keySet());
+        int[] playedTimes = new int[played.size()];
+        for (int i = 0; i < playedTimes.length; i++) {
+            playedTimes[i] = user.getAlreadyPlayedPodcasts().get(played.get(i));
+        }
+        writer.writeInts(toPodcastIds(played, podcastIds));
+        writer.writeInts(playedTimes);
+
+        writer.writeInt(user.getPlayer() == null ? 0 : 1);
+        if (user.getPlayer() != null) {
+            user.getPlayer().writeTo(writer, podcastIds);
+        }
+    }
+
+    private static UserDetails readUser(final SnapshotReader reader,
+                                        final LibraryInput library,
+                                        final PlaylistRegistry playlists) {
+        List<SongInputExtended> songs = library.getSongs();
+        List<PodcastInputExtended> podcasts = library.getPodcasts();
+        List<Playlist> created = playlists.getPlaylists();
+
+        UserDetails user = new UserDetails(reader.readString());
+        user.setLastCommand(reader.readString());
+        int typeSearched = reader.readInt();
+        user.setTypeSearched(typeSearched < 0 ? null : SourceType.values()[typeSearched]);
+        user.setSelected(reader.readInt() != 0);
+        for (int ordinal : reader.readInts()) {
+            user.addLikedSong(songs.get(ordinal));
+        }
+        // Following the playlists again also restores their followers.
+        for (int index : reader.readInts()) {
+            user.follow(created.get(index));
+        }
+
+        int[] ids = readOptional(reader);
+        user.setSearchSongResults(ids == null ? null : select(songs, ids));
+        ids = readOptional(reader);
+        user.setSearchPodcastsResults(ids == null ? null : select(podcasts, ids));
+        ids = readOptional(reader);
+        user.setSearchPlaylistsResults(ids == null ? null : select(created, ids));
+
+        int[] played = reader.readInts();
+        int[] playedTimes = reader.readInts();
+        for (int i = 0; i < played.length; i++) {
+            user.getAlreadyPlayedPodcasts().put(podcasts.get(played[i]), playedTimes[i]);
+        }
+
+        if (reader.readInt() != 0) {
+            user.setPlayer(Player.readFrom(reader, library, playlists));
+        }
+        return user;
+    }
+
+    private static void writeOptional(final SnapshotWriter writer, final int[] values)
+            throws IOException {
+        writer.writeInt(values == null ? 0 : 1);
+        if (values != null) {
+            writer.writeInts(values);
+        }
+    }
+
+    private static int[] readOptional(final SnapshotReader reader) {
+        return reader.readInt() == 0 ? null : reader.readInts();
+    }
+
+    private static <T> List<T> select(final List<T> items, final int[] ids) {
+        List<T> selected = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            selected.add(items.get(id));
+        }
+        return selected;
+    }
+
+    private static int[] toOrdinals(final List<SongInputExtended> songs) {
+        int[] ordinals = new int[songs.size()];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = songs.get(i).getOrdinal();
+        }
+        return ordinals;
+    }
+
+    private static int[] toCreationIndexes(final List<Playlist> playlists) {
+        int[] indexes = new int[playlists.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = playlists.get(i).getCreationIndex();
+        }
+        return indexes;
+    }
+
+    private static int[] toPodcastIds(final List<PodcastInputExtended> podcasts,
+                                      final ToIntFunction<PodcastInputExtended> podcastIds) {
+        int[] ids = new int[podcasts.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = podcastIds.applyAsInt(podcasts.get(i));
+        }
+        return ids;
+    }
+}
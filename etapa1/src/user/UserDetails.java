@@ -4,6 +4,7 @@ import fileio.extended.PodcastInputExtended;
 import fileio.extended.SongInputExtended;
 import music.Player;
 import music.Playlist;
+import music.SourceType;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -25,7 +26,7 @@ public final class UserDetails {
 
     private final Map<PodcastInputExtended, Integer> alreadyPlayedPodcasts;
 
-    private String typeSearched;
+    private SourceType typeSearched;
 
     private Player player;
 
@@ -61,6 +62,10 @@ public final class UserDetails {
         }
     }
 
+    public List<Playlist> getFollowedPlaylists() {
+        return followedPlaylists;
+    }
+
     public List<SongInputExtended> getSearchSongResults() {
         return searchSongResults;
     }
@@ -97,11 +102,11 @@ public final class UserDetails {
         this.searchPodcastsResults = searchPodcastsResults;
     }
 
-    public String getTypeSearched() {
+    public SourceType getTypeSearched() {
         return typeSearched;
     }
 
-    public void setTypeSearched(final String typeSearched) {
+    public void setTypeSearched(final SourceType typeSearched) {
         this.typeSearched = typeSearched;
     }
 
@@ -148,7 +153,7 @@ public final class UserDetails {
     public void resetPlayer(final int timestamp) {
         if (player != null) {
             player.resetLoader(timestamp, this);
-            if (player.getPlayingType().equals("podcast")) {
+            if (player.getSourceType() == SourceType.PODCAST) {
                 alreadyPlayedPodcasts.put(player.getPodcastInputExtended(), player.getPlayedTime());
             }
             player.setFinished();
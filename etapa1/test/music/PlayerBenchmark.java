@@ -0,0 +1,135 @@
+package music;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import main.Main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Times the player commands through Main.action, so the same harness runs on the trees
+ * before and after a change of the player. Every library user loads a song, a podcast
+ * or a playlist of their own, then sends status, next (except for songs, which it ends),
+ * prev, repeat, shuffle, forward and backward commands in turns, loading the source again
+ * every few turns. The file is run a few times to warm up, then timed. Run from the
+ * project directory with java music.PlayerBenchmark [rounds], where rounds is the number
+ * of turns of every user (default 2000).
+ */
+public final class PlayerBenchmark {
+    private static final int DEFAULT_ROUNDS = 2000;
+    private static final int WARMUP_RUNS = 5;
+    private static final int TIMED_RUNS = 10;
+    private static final int PLAYLIST_SONGS = 10;
+    private static final int RELOAD_EVERY = 4;
+    private static final int SOURCE_KINDS = 3;
+    private static final int SONG_USER = 0;
+    private static final int PODCAST_USER = 1;
+    private static final int PLAYLIST_USER = 2;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ArrayNode commands = MAPPER.createArrayNode();
+    private int timestamp;
+
+    private PlayerBenchmark() {
+    }
+
+    /**
+     * @param args the number of turns of every user, optional
+     * @throws IOException if the library can't be read or the files can't be written
+     */
+    public static void main(final String[] args) throws IOException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+        JsonNode library = MAPPER.readTree(new File("input/library/library.json"));
+        PlayerBenchmark benchmark = new PlayerBenchmark();
+        benchmark.generate(library, rounds);
+
+        File input = File.createTempFile("player-benchmark", ".json");
+        File output = File.createTempFile("player-benchmark-out", ".json");
+        try {
+            MAPPER.writeValue(input, benchmark.commands);
+            for (int run = 0; run < WARMUP_RUNS; run++) {
+                Main.action(input.getPath(), output.getPath());
+            }
+            long start = System.nanoTime();
+            for (int run = 0; run < TIMED_RUNS; run++) {
+                Main.action(input.getPath(), output.getPath());
+            }
+            long nanos = (System.nanoTime() - start) / TIMED_RUNS;
+            System.out.println(benchmark.commands.size() + " commands in "
+                    + nanos / NANOS_PER_MILLI + " ms per run, "
+                    + nanos / benchmark.commands.size() + " ns per command");
+        } finally {
+            Files.deleteIfExists(input.toPath());
+            Files.deleteIfExists(output.toPath());
+        }
+    }
+
+    private void generate(final JsonNode library, final int rounds) {
+        JsonNode users = library.get("users");
+        JsonNode songs = library.get("songs");
+        for (int user = 0; user < users.size(); user++) {
+            if (user % SOURCE_KINDS == PLAYLIST_USER) {
+                String username = users.get(user).get("username").asText();
+                command(username, "createPlaylist").put("playlistName", username);
+                for (int i = 0; i < PLAYLIST_SONGS; i++) {
+                    load(username, "song",
+                            songs.get((user + i) % songs.size()).get("name").asText());
+                    command(username, "addRemoveInPlaylist").put("playlistId", 1);
+                }
+            }
+        }
+        for (int round = 0; round < rounds; round++) {
+            for (int user = 0; user < users.size(); user++) {
+                String username = users.get(user).get("username").asText();
+                if (round % RELOAD_EVERY == 0) {
+                    // The sources that ended are loaded again, so most commands play.
+                    loadSource(library, user, username);
+                }
+                command(username, "status");
+                if (user % SOURCE_KINDS != SONG_USER) {
+                    command(username, "next");
+                }
+                command(username, "prev");
+                command(username, "repeat");
+                command(username, "shuffle").put("seed", round);
+                command(username, "forward");
+                command(username, "backward");
+            }
+        }
+    }
+
+    private void loadSource(final JsonNode library, final int user, final String username) {
+        JsonNode songs = library.get("songs");
+        JsonNode podcasts = library.get("podcasts");
+        switch (user % SOURCE_KINDS) {
+            case PODCAST_USER -> load(username, "podcast",
+                    podcasts.get(user % podcasts.size()).get("name").asText());
+            case PLAYLIST_USER -> {
+                ObjectNode search = command(username, "search").put("type", "playlist");
+                search.putObject("filters").put("owner", username);
+                command(username, "select").put("itemNumber", 1);
+                command(username, "load");
+            }
+            default -> load(username, "song",
+                    songs.get(user % songs.size()).get("name").asText());
+        }
+    }
+
+    private void load(final String username, final String type, final String name) {
+        ObjectNode search = command(username, "search").put("type", type);
+        search.putObject("filters").put("name", name);
+        command(username, "select").put("itemNumber", 1);
+        command(username, "load");
+    }
+
+    private ObjectNode command(final String username, final String name) {
+        return commands.addObject().put("command", name).put("username", username)
+                .put("timestamp", timestamp++);
+    }
+}
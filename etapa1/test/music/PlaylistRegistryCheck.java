@@ -0,0 +1,88 @@
+package music;
+
+import service.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks getTop5Playlists on a registry against sorting a copy of the playlists by
+ * followers, ties in creation order: random creations, follows and unfollows. It then
+ * times one follow of every playlist in a large registry where no playlist has followers
+ * yet, and checks that the registry kept the creation order. Run with
+ * java music.PlaylistRegistryCheck.
+ */
+public final class PlaylistRegistryCheck {
+    private static final int ROUNDS = 10;
+    private static final int OPERATIONS = 20000;
+    private static final int TOP_SIZE = 5;
+    private static final int CREATE_ONE_IN = 8;
+    private static final int CHECK_EVERY = 7;
+    private static final int LARGE_REGISTRY = 1 << 20;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private PlaylistRegistryCheck() {
+    }
+
+    /**
+     * @param args not used
+     */
+    public static void main(final String[] args) {
+        Random random = new Random(0);
+        int checks = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            PlaylistRegistry registry = new PlaylistRegistry();
+            for (int operation = 0; operation < OPERATIONS; operation++) {
+                List<Playlist> playlists = registry.getPlaylists();
+                if (playlists.isEmpty() || random.nextInt(CREATE_ONE_IN) == 0) {
+                    registry.add(new Playlist("playlist" + playlists.size(), "owner"));
+                } else {
+                    Playlist playlist = playlists.get(random.nextInt(playlists.size()));
+                    if (playlist.getFollowers() > 0 && random.nextBoolean()) {
+                        playlist.removeFollower();
+                    } else {
+                        playlist.addFollower();
+                    }
+                }
+                if (operation % CHECK_EVERY == 0) {
+                    check(registry);
+                    checks++;
+                }
+            }
+        }
+        System.out.println("Checked the top " + checks + " times");
+
+        PlaylistRegistry registry = new PlaylistRegistry();
+        for (int i = 0; i < LARGE_REGISTRY; i++) {
+            registry.add(new Playlist("playlist" + i, "owner"));
+        }
+        long start = System.nanoTime();
+        for (Playlist playlist : registry.getPlaylists()) {
+            playlist.addFollower();
+        }
+        long millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        check(registry);
+        for (int i = 0; i < LARGE_REGISTRY; i++) {
+            if (registry.getPlaylists().get(i).getCreationIndex() != i) {
+                throw new IllegalStateException("The registry order changed at " + i);
+            }
+        }
+        System.out.println("Followed " + LARGE_REGISTRY + " playlists in " + millis + " ms");
+    }
+
+    private static void check(final PlaylistRegistry registry) {
+        // The sort is stable, so equal followers stay in creation order.
+        List<Playlist> sorted = new ArrayList<>(registry.getPlaylists());
+        sorted.sort(Comparator.comparing(Playlist::getFollowers).reversed());
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < Math.min(TOP_SIZE, sorted.size()); i++) {
+            expected.add(sorted.get(i).getName());
+        }
+        List<String> top = Service.getTop5P(registry);
+        if (!expected.equals(top)) {
+            throw new IllegalStateException("Expected " + expected + " but was " + top);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package music;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the playlist search of the registry against a scan of all the playlists in
+ * creation order: random names from a small alphabet, so both short and long prefixes
+ * match few or many playlists, random visibility changes and random searches. Run with
+ * java music.PlaylistSearchCheck.
+ */
+public final class PlaylistSearchCheck {
+    private static final int ROUNDS = 2000;
+    private static final int MAX_OPERATIONS = 600;
+    private static final int LIMIT = 5;
+    private static final int LETTERS = 3;
+    private static final int OPERATION_KINDS = 3;
+    private static final int MAX_NAME_LENGTH = 3;
+    private static final String[] USERS = {"user1", "user2", "user3"};
+
+    private PlaylistSearchCheck() {
+    }
+
+    /**
+     * @param args not used
+     */
+    public static void main(final String[] args) {
+        Random random = new Random(0);
+        int checks = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            PlaylistRegistry registry = new PlaylistRegistry();
+            int operations = random.nextInt(MAX_OPERATIONS);
+            for (int operation = 0; operation < operations; operation++) {
+                List<Playlist> playlists = registry.getPlaylists();
+                switch (random.nextInt(OPERATION_KINDS)) {
+                    case 0:
+                        registry.add(new Playlist(randomName(random, 1 + random.nextInt(
+                                MAX_NAME_LENGTH)), randomUser(random)));
+                        break;
+                    case 1:
+                        if (!playlists.isEmpty()) {
+                            registry.changeVisibility(
+                                    playlists.get(random.nextInt(playlists.size())));
+                        }
+                        break;
+                    default:
+                        String name = random.nextBoolean() ? null
+                                : randomName(random, random.nextInt(MAX_NAME_LENGTH));
+                        String owner = random.nextBoolean() ? null : randomUser(random);
+                        check(registry, randomUser(random), name, owner);
+                        checks++;
+                        break;
+                }
+            }
+        }
+        System.out.println("Checked " + checks + " searches");
+    }
+
+    private static void check(final PlaylistRegistry registry, final String username,
+                              final String name, final String owner) {
+        List<Playlist> expected = new ArrayList<>();
+        if (name != null || owner != null) {
+            for (Playlist playlist : registry.getPlaylists()) {
+                if (expected.size() == LIMIT) {
+                    break;
+                }
+                if ((playlist.getOwner().equals(username) || !playlist.isPrivatePlaylist())
+                        && (name == null || playlist.getName().startsWith(name))
+                        && (owner == null || playlist.getOwner().equals(owner))) {
+                    expected.add(playlist);
+                }
+            }
+        }
+        List<Playlist> results = registry.search(username, name, owner, LIMIT);
+        if (!expected.equals(results)) {
+            throw new IllegalStateException("Search of " + name + " by " + owner + " for "
+                    + username + " returned " + results.size() + " playlists, expected "
+                    + expected.size());
+        }
+    }
+
+    private static String randomName(final Random random, final int length) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            name.append((char) ('a' + random.nextInt(LETTERS)));
+        }
+        return name.toString();
+    }
+
+    private static String randomUser(final Random random) {
+        return USERS[random.nextInt(USERS.length)];
+    }
+}
@@ -0,0 +1,102 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the Leaderboard against picking the best scores one by one: random adds and
+ * score changes, with a few scores so there are many ties, and a ranking built at once
+ * from a list of scores. It then times one like of every song in a large library where
+ * all the songs are tied, the case where a sorted array moves every song across all the
+ * others. Run with java search.LeaderboardCheck.
+ */
+public final class LeaderboardCheck {
+    private static final int ROUNDS = 20;
+    private static final int OPERATIONS = 20000;
+    private static final int TOP_SIZE = 5;
+    private static final int SCORES = 4;
+    private static final int MAX_SCORE = 50;
+    private static final int ADD_ONE_IN = 10;
+    private static final int JUMP_ONE_IN = 4;
+    private static final int CHECK_EVERY = 7;
+    private static final int TIED_ITEMS = 1 << 20;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private LeaderboardCheck() {
+    }
+
+    /**
+     * @param args not used
+     */
+    public static void main(final String[] args) {
+        Random random = new Random(0);
+        int checks = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Integer> scores = new ArrayList<>();
+            Leaderboard leaderboard;
+            if (round % 2 == 0) {
+                leaderboard = new Leaderboard(LeaderboardCheck::name, TOP_SIZE);
+            } else {
+                int[] initial = new int[random.nextInt(OPERATIONS)];
+                for (int id = 0; id < initial.length; id++) {
+                    initial[id] = random.nextInt(SCORES);
+                    scores.add(initial[id]);
+                }
+                leaderboard = new Leaderboard(LeaderboardCheck::name, TOP_SIZE, initial);
+            }
+            for (int operation = 0; operation < OPERATIONS; operation++) {
+                if (scores.isEmpty() || random.nextInt(ADD_ONE_IN) == 0) {
+                    int score = random.nextInt(SCORES);
+                    leaderboard.add(scores.size(), score);
+                    scores.add(score);
+                } else {
+                    int id = random.nextInt(scores.size());
+                    int score = random.nextInt(JUMP_ONE_IN) == 0 ? random.nextInt(MAX_SCORE)
+                            : Math.max(0, scores.get(id) + (random.nextBoolean() ? 1 : -1));
+                    leaderboard.update(id, score);
+                    scores.set(id, score);
+                }
+                if (operation % CHECK_EVERY == 0) {
+                    check(scores, leaderboard.getTop());
+                    checks++;
+                }
+            }
+        }
+        System.out.println("Checked the top " + checks + " times");
+
+        Leaderboard tied = new Leaderboard(LeaderboardCheck::name, TOP_SIZE,
+                new int[TIED_ITEMS]);
+        long start = System.nanoTime();
+        for (int id = 0; id < TIED_ITEMS; id++) {
+            tied.update(id, 1);
+        }
+        long millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        check(Collections.nCopies(TIED_ITEMS, 1), tied.getTop());
+        System.out.println("Liked " + TIED_ITEMS + " tied items in " + millis + " ms");
+    }
+
+    private static void check(final List<Integer> scores, final List<String> top) {
+        // The first items are picked one at a time, each one the best that's left.
+        List<String> expected = new ArrayList<>();
+        boolean[] picked = new boolean[scores.size()];
+        for (int rank = 0; rank < Math.min(TOP_SIZE, scores.size()); rank++) {
+            int best = -1;
+            for (int id = 0; id < scores.size(); id++) {
+                if (!picked[id] && (best == -1 || scores.get(id) > scores.get(best))) {
+                    best = id;
+                }
+            }
+            picked[best] = true;
+            expected.add(name(best));
+        }
+        if (!expected.equals(top)) {
+            throw new IllegalStateException("Expected " + expected + " but was " + top);
+        }
+    }
+
+    private static String name(final int id) {
+        return "item" + id;
+    }
+}
@@ -0,0 +1,236 @@
+package snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that the command log gives back the commands appended to it, after the ways a
+ * server can stop: the longest command allowed is recovered unchanged and a longer one
+ * is refused, a record cut at the end of the last segment or failing its checksum in the
+ * middle of it is dropped with the records after it, a bad record in an earlier segment
+ * stops the recovery, and a server that stopped between starting a segment and deleting
+ * the old ones replays only the commands after its snapshot. Run with
+ * java snapshot.CommandLogCheck.
+ */
+public final class CommandLogCheck {
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int COMMANDS = 8;
+    private static final int SNAPSHOT = 5;
+
+    private CommandLogCheck() {
+    }
+
+    /**
+     * @param args not used
+     * @throws IOException if the log can't be written or read
+     */
+    public static void main(final String[] args) throws IOException {
+        checkLargeCommands();
+        checkCutTail();
+        checkChecksumInLastSegment();
+        checkChecksumInEarlierSegment();
+        checkStopBeforeDelete();
+        System.out.println("All the command log checks passed");
+    }
+
+    private static void checkLargeCommands() throws IOException {
+        File directory = Files.createTempDirectory("command-log").toFile();
+        try {
+            Random random = new Random(0);
+            List<byte[]> commands = new ArrayList<>();
+            commands.add(new byte[]{'{', '}'});
+            commands.add(new byte[CommandLog.MAX_COMMAND_SIZE]);
+            commands.add(new byte[CommandLog.MAX_COMMAND_SIZE - 1]);
+            commands.add(new byte[]{'{', '}'});
+            for (byte[] command : commands) {
+                random.nextBytes(command);
+            }
+            try (CommandLog log = new CommandLog(directory, 0)) {
+                long last = 0;
+                for (byte[] command : commands) {
+                    last = log.append(command);
+                }
+                try {
+                    log.append(new byte[CommandLog.MAX_COMMAND_SIZE + 1]);
+                    throw new IllegalStateException("A command over the limit was appended");
+                } catch (IllegalArgumentException e) {
+                    // Refused, as expected.
+                }
+                log.awaitDurable(last);
+            }
+            List<byte[]> recovered = recover(directory, 0);
+            expect(recovered.size() == commands.size(), "Recovered " + recovered.size()
+                    + " large commands out of " + commands.size());
+            for (int i = 0; i < commands.size(); i++) {
+                expect(Arrays.equals(commands.get(i), recovered.get(i)),
+                        "Large command " + (i + 1) + " changed");
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void checkCutTail() throws IOException {
+        File directory = Files.createTempDirectory("command-log").toFile();
+        try {
+            write(directory, COMMANDS, -1);
+            File segment = segments(directory).get(0);
+            long length = segment.length();
+            try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+                file.setLength(length - 1);
+            }
+            expectCommands(recover(directory, 0), 1, COMMANDS - 1);
+            expect(segment.length() == length - HEADER_SIZE - command(COMMANDS).length,
+                    "The cut record was not removed from the segment");
+
+            // The log goes on after the recovered commands.
+            try (CommandLog log = new CommandLog(directory, COMMANDS - 1)) {
+                log.awaitDurable(log.append(command(COMMANDS)));
+            }
+            expectCommands(recover(directory, 0), 1, COMMANDS);
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void checkChecksumInLastSegment() throws IOException {
+        File directory = Files.createTempDirectory("command-log").toFile();
+        try {
+            write(directory, COMMANDS, -1);
+            damage(segments(directory).get(0), SNAPSHOT);
+            expectCommands(recover(directory, 0), 1, SNAPSHOT - 1);
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void checkChecksumInEarlierSegment() throws IOException {
+        File directory = Files.createTempDirectory("command-log").toFile();
+        try {
+            write(directory, COMMANDS, SNAPSHOT);
+            List<File> segments = segments(directory);
+            expect(segments.size() == 2, "Expected 2 segments, found " + segments.size());
+            damage(segments.get(0), 2);
+            try {
+                recover(directory, 0);
+                throw new IllegalStateException("A damaged earlier segment was recovered");
+            } catch (IOException e) {
+                // Refused, as expected.
+            }
+            expect(segments(directory).size() == 2, "A segment was deleted");
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void checkStopBeforeDelete() throws IOException {
+        File directory = Files.createTempDirectory("command-log").toFile();
+        try {
+            // The snapshot of command 5 was saved, but the server stopped before it
+            // deleted the segment with the commands up to it.
+            write(directory, COMMANDS, SNAPSHOT);
+            expect(segments(directory).size() == 2, "The segment was not started");
+            expectCommands(recover(directory, SNAPSHOT), SNAPSHOT + 1, COMMANDS);
+
+            // The snapshot was not saved, the previous one is older than the segments.
+            expectCommands(recover(directory, 0), 1, COMMANDS);
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Appends the commands 1 to count, starting a new segment after the command
+     * segmentAfter if it is positive, and closes the log once they are on the disk
+     */
+    private static void write(final File directory, final int count,
+                              final int segmentAfter) throws IOException {
+        try (CommandLog log = new CommandLog(directory, 0)) {
+            for (int sequence = 1; sequence <= count; sequence++) {
+                log.append(command(sequence));
+                if (sequence == segmentAfter) {
+                    log.startSegment();
+                }
+            }
+            log.awaitDurable(count);
+        }
+    }
+
+    /**
+     * Changes the last byte of a command in a segment, so its record fails its checksum
+     */
+    private static void damage(final File segment, final int sequence) throws IOException {
+        long position = 0;
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            while (true) {
+                file.seek(position);
+                int length = file.readInt();
+                file.readInt();
+                long recordSequence = file.readLong();
+                if (recordSequence == sequence) {
+                    long last = position + HEADER_SIZE + length - 1;
+                    file.seek(last);
+                    int value = file.read();
+                    file.seek(last);
+                    file.write(value ^ 1);
+                    return;
+                }
+                position += HEADER_SIZE + length;
+            }
+        }
+    }
+
+    private static List<byte[]> recover(final File directory, final long snapshot)
+            throws IOException {
+        List<byte[]> recovered = new ArrayList<>();
+        long last = CommandLog.recover(directory, snapshot, (sequence, command) -> {
+            expect(sequence == snapshot + recovered.size() + 1,
+                    "Command " + sequence + " replayed out of order");
+            recovered.add(command);
+        });
+        expect(last == snapshot + recovered.size(), "Recovery ended at command " + last);
+        return recovered;
+    }
+
+    private static void expectCommands(final List<byte[]> recovered, final int first,
+                                       final int last) {
+        expect(recovered.size() == last - first + 1, "Recovered " + recovered.size()
+                + " commands, expected " + first + " to " + last);
+        for (int i = 0; i < recovered.size(); i++) {
+            expect(Arrays.equals(command(first + i), recovered.get(i)),
+                    "Command " + (first + i) + " changed");
+        }
+    }
+
+    private static byte[] command(final int sequence) {
+        return ("{\"command\":\"status\",\"timestamp\":" + sequence + "}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<File> segments(final File directory) {
+        File[] files = directory.listFiles();
+        List<File> segments = new ArrayList<>(Arrays.asList(files == null ? new File[0] : files));
+        segments.sort(null);
+        return segments;
+    }
+
+    private static void expect(final boolean condition, final String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static void delete(final File directory) throws IOException {
+        for (File file : segments(directory)) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory.toPath());
+    }
+}